@@ -0,0 +1,127 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import lombok.ToString;
+
+/**
+ * Additive-increase/multiplicative-decrease (AIMD) concurrency limit.
+ * Each healthy response increases the limit by {@code 1/limit} (about one
+ * per round-trip of the full window).  A response slower than twice the
+ * observed baseline latency decreases the limit by 10%; an overload
+ * signal (e.g., HTTP 429 or 503 or a time-out) halves it.
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@ToString
+public class AdaptiveLimit {
+    private final int minimum;
+    private final int maximum;
+    private double limit;
+    private int inFlight = 0;
+    private double baseline = -1;
+
+    /**
+     * Sole constructor.
+     *
+     * @param   initial         The initial limit.
+     * @param   minimum         The minimum limit.
+     * @param   maximum         The maximum limit.
+     */
+    public AdaptiveLimit(int initial, int minimum, int maximum) {
+        this.minimum = Math.max(1, minimum);
+        this.maximum = Math.max(this.minimum, maximum);
+        this.limit = Math.min(Math.max(initial, this.minimum), this.maximum);
+    }
+
+    /**
+     * Method to get the current limit.
+     *
+     * @return  The current limit.
+     */
+    public synchronized int getLimit() { return (int) limit; }
+
+    /**
+     * Method to test if no permits are held.
+     *
+     * @return  {@code true} if idle; {@code false} otherwise.
+     */
+    public synchronized boolean isIdle() { return (inFlight == 0); }
+
+    /**
+     * Method to acquire a permit (blocking while the limit is reached).
+     *
+     * @throws  InterruptedException
+     *                          If interrupted while waiting.
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+
+        inFlight += 1;
+    }
+
+    /**
+     * Method to release a permit and adjust the limit.
+     *
+     * @param   nanos           The observed latency (nanoseconds).
+     * @param   outcome         The {@link Outcome}.
+     */
+    public synchronized void release(long nanos, Outcome outcome) {
+        inFlight -= 1;
+
+        switch (outcome) {
+        case OVERLOAD:
+            limit = Math.max(minimum, limit / 2);
+            break;
+
+        case SUCCESS:
+            if (baseline < 0 || nanos < baseline) {
+                baseline = nanos;
+            } else {
+                baseline += (nanos - baseline) / 32;
+            }
+
+            if (nanos > 2 * baseline) {
+                limit = Math.max(minimum, limit * 0.9);
+            } else {
+                limit = Math.min(maximum, limit + 1 / limit);
+            }
+            break;
+
+        default:
+            break;
+        }
+
+        notifyAll();
+    }
+
+    /**
+     * Request outcome.
+     */
+    public enum Outcome {
+        /** Healthy response (latency is considered) */
+        SUCCESS,
+        /** Overload signal (HTTP 429 or 503, time-out, refused) */
+        OVERLOAD,
+        /** Any other error (no adjustment) */
+        ERROR
+    }
+}
@@ -0,0 +1,121 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.io.Serializable;
+import java.util.Locale;
+import lombok.Getter;
+import org.apache.maven.artifact.Artifact;
+
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+
+/**
+ * Immutable {@code groupId:artifactId:version} key.  The
+ * {@link #toString()} representation, the (case-insensitive) ordering
+ * key, and the hash code are calculated once at construction so
+ * {@link java.util.Map} look-ups do not allocate and the key does not
+ * retain the {@link Artifact} (and its {@link java.io.File}, handler,
+ * metadata, and dependency trail).
+ *
+ * {@bean.info}
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+public final class ArtifactKey implements Comparable<ArtifactKey>, Serializable {
+    private static final long serialVersionUID = 2893375101453416092L;
+
+    @Getter private final String groupId;
+    @Getter private final String artifactId;
+    @Getter private final String version;
+    private final transient String key;
+    private final transient String order;
+    private final transient int hash;
+
+    /**
+     * Sole constructor.
+     *
+     * @param   groupId         The {@code groupId}.
+     * @param   artifactId      The {@code artifactId}.
+     * @param   version         The {@code version}.
+     */
+    public ArtifactKey(String groupId, String artifactId, String version) {
+        this.groupId = (groupId != null) ? groupId : EMPTY;
+        this.artifactId = (artifactId != null) ? artifactId : EMPTY;
+        this.version = (version != null) ? version : EMPTY;
+        this.key = String.join(":", this.groupId, this.artifactId, this.version);
+        this.order = key.toLowerCase(Locale.ROOT);
+        this.hash = order.hashCode();
+    }
+
+    /**
+     * Static method to get the {@link ArtifactKey} of an {@link Artifact}.
+     *
+     * @param   artifact        The {@link Artifact}.
+     *
+     * @return  The {@link ArtifactKey}.
+     */
+    public static ArtifactKey of(Artifact artifact) {
+        return new ArtifactKey(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
+    }
+
+    /**
+     * Static method to parse a {@code groupId:artifactId:version}
+     * {@link String}.
+     *
+     * @param   string          The {@link String} to parse.
+     *
+     * @return  The {@link ArtifactKey}.
+     *
+     * @throws  IllegalArgumentException
+     *                          If {@code string} does not have three
+     *                          components.
+     */
+    public static ArtifactKey parse(String string) {
+        String[] gav = string.trim().split(":", 3);
+
+        if (gav.length != 3) {
+            throw new IllegalArgumentException(string);
+        }
+
+        return new ArtifactKey(gav[0], gav[1], gav[2]);
+    }
+
+    @Override
+    public int compareTo(ArtifactKey that) {
+        return this.order.compareTo(that.order);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        return (this == object
+                || (object instanceof ArtifactKey
+                    && this.hash == ((ArtifactKey) object).hash
+                    && this.order.equals(((ArtifactKey) object).order)));
+    }
+
+    @Override
+    public int hashCode() { return hash; }
+
+    @Override
+    public String toString() { return key; }
+
+    private Object readResolve() {
+        return new ArtifactKey(groupId, artifactId, version);
+    }
+}
@@ -18,16 +18,26 @@ package ball.maven.plugins.license;
  * limitations under the License.
  * ##########################################################################
  */
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.JarURLConnection;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -37,13 +47,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Queue;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -54,12 +65,14 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.artifact.Artifact;
-import org.apache.maven.artifact.ArtifactUtils;
-import org.apache.maven.artifact.DefaultArtifact;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Model;
 import org.spdx.rdfparser.license.AnyLicenseInfo;
@@ -69,14 +82,15 @@ import org.spdx.rdfparser.license.OrLaterOperator;
 import org.spdx.rdfparser.license.WithExceptionOperator;
 
 import static ball.maven.plugins.license.LicenseUtilityMethods.isFullySpdxListed;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
+import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
-import static org.apache.maven.artifact.ArtifactUtils.key;
 
 /**
- * {@link Artifact} to {@link LicenseSet}
+ * {@link ArtifactKey} ({@link Artifact}) to {@link LicenseSet}
  * ({@link org.spdx.rdfparser.license.License}) {@link java.util.Map}
  * implementation.  The {@link #get(Object)} method transparently calculates
  * and caches any value.
@@ -85,20 +99,30 @@ import static org.apache.maven.artifact.ArtifactUtils.key;
  */
 @Named @Singleton
 @Slf4j
-public class ArtifactLicenseCatalog extends TreeMap<Artifact,AnyLicenseInfo> {
+public class ArtifactLicenseCatalog extends ConcurrentSkipListMap<ArtifactKey,AnyLicenseInfo> {
     private static final long serialVersionUID = -7887839577334232433L;
 
     private static final String CATALOG = "artifact-license-catalog.xml";
+    private static final String OUTCOMES = "artifact-license-outcomes.jsonl";
+    private static final String ARTIFACT = "artifact";
+    private static final String FINGERPRINT = "fingerprint";
+    private static final String LICENSE = "license";
+    /*
+     * Outcome fingerprints are salted with the plugin version and the
+     * bundled resources that affect a calculation so a new plugin release
+     * (or new aliases, seeds, or license list) invalidates them.
+     */
+    private static final String[] SALT_RESOURCES = new String[] {
+        CATALOG,
+        LicenseListIndex.RESOURCE,
+        URLSeedTable.RESOURCE,
+        "LicenseMap.aliases.xml",
+        "URLLicenseInfoParser.redirects.xml",
+        "URLLicenseInfoParser.seeds.xml"
+    };
 
     private static final int FLUSH_PERIOD = 8;
 
-    private static final Predicate<String> INCLUDE =
-        Pattern.compile("(?i)^(.*/|)(LICENSE([.][^/]+)?|about.html)$")
-        .asPredicate();
-    private static final Predicate<String> EXCLUDE =
-        Pattern.compile("(?i)^.*[.]class$")
-        .asPredicate().negate();
-
     private static final Comparator<? super Boolean> TRUTH =
         (t, u) -> Objects.equals(t, u) ? 0 : (t ? -1 : 1);
     private static Comparator<? super AnyLicenseInfo> SIEVE =
@@ -116,29 +140,49 @@ public class ArtifactLicenseCatalog extends TreeMap<Artifact,AnyLicenseInfo> {
 
     /** @serial */ private final MavenSession session;
     /** @serial */ private final ArtifactModelCache cache;
-    /** @serial */ private final LicenseMap map;
-    /** @serial */ private final LicenseResolver resolver;
+    /** @serial */ private final Provider<LicenseMap> map;
+    /** @serial */ private final Provider<LicenseResolver> resolver;
     /** @serial */ private final File file;
     /** @serial */ private final Properties defaults = new Properties();
     /** @serial */ private final Properties catalog = new Properties(defaults);
+    /** @serial */ private final SBOMParser sbomParser = new SBOMParser();
+    /** @serial */ private final Map<File,Map<ArtifactKey,List<SBOMParser.Claim>>> sboms =
+        new ConcurrentSkipListMap<>();
+    /** @serial */ private final AtomicInteger computed = new AtomicInteger();
+    /** @serial */ private final File outcomesFile;
+    /** @serial */ private final Map<ArtifactKey,Outcome> outcomes =
+        new ConcurrentSkipListMap<>();
+    /** @serial */ private final Queue<ObjectNode> journal = new ConcurrentLinkedQueue<>();
+    /** @serial */ private String salt = null;
+    /** @serial */ private boolean unwritten = false;
+    /** @serial */ private final ObjectMapper mapper = new ObjectMapper();
+    /** @serial */ private final Map<ArtifactKey,LicenseExpression> expressions =
+        new ConcurrentSkipListMap<>();
+    /** @serial */ private final ConcurrentSkipListSet<ArtifactKey> changed =
+        new ConcurrentSkipListSet<>();
+    /** @serial */ private final ArtifactRangeIndex<LicenseExpression> patterns = new ArtifactRangeIndex<>();
 
     /**
      * Sole constructor.
      *
      * @param   session         The injected {@link MavenSession}.
      * @param   cache           The injected {@link ArtifactModelCache}.
-     * @param   map             The injected {@link LicenseMap}.
-     * @param   resolver        The injected {@link LicenseResolver}.
+     * @param   map             The injected {@link LicenseMap}
+     *                          {@link Provider}.
+     * @param   resolver        The injected {@link LicenseResolver}
+     *                          {@link Provider}.
      */
     @Inject
-    public ArtifactLicenseCatalog(MavenSession session, ArtifactModelCache cache, LicenseMap map, LicenseResolver resolver) {
-        super(Comparator.comparing(ArtifactUtils::key, String.CASE_INSENSITIVE_ORDER));
+    public ArtifactLicenseCatalog(MavenSession session, ArtifactModelCache cache,
+                                  Provider<LicenseMap> map, Provider<LicenseResolver> resolver) {
+        super();
 
         this.session = Objects.requireNonNull(session);
         this.cache = Objects.requireNonNull(cache);
         this.map = Objects.requireNonNull(map);
         this.resolver = Objects.requireNonNull(resolver);
         this.file = new File(session.getLocalRepository().getBasedir(), CATALOG);
+        this.outcomesFile = new File(session.getLocalRepository().getBasedir(), OUTCOMES);
     }
 
     protected void load() {
@@ -159,36 +203,146 @@ public class ArtifactLicenseCatalog extends TreeMap<Artifact,AnyLicenseInfo> {
 
         for (String key : catalog.stringPropertyNames()) {
             try {
-                put(new KeyArtifact(key), resolver.parseLicenseString(catalog.getProperty(key)));
+                LicenseExpression value = LicenseExpression.parse(catalog.getProperty(key));
+
+                if (ArtifactRangeIndex.isPattern(key)) {
+                    patterns.put(key, value);
+                } else {
+                    expressions.put(ArtifactKey.parse(key), value);
+                }
+            } catch (IllegalArgumentException exception) {
+                log.error("{}: Cannot parse '{}'", key, catalog.getProperty(key));
             } catch (Exception exception) {
                 log.error("{}: {}", key, exception.getMessage(), exception);
             }
         }
-    }
 
-    protected void flush() {
-        boolean dirty = (! file.exists());
+        salt = saltOf();
+        /*
+         * The outcomes file is a journal (one JSON object per line, the
+         * last line for an artifact wins, a line without a fingerprint
+         * removes the artifact).  It is compacted when it is read if
+         * superseded lines outnumber the outcomes.
+         */
+        if (outcomesFile.exists()) {
+            int lines = 0;
+
+            try (BufferedReader reader =
+                     new BufferedReader(new InputStreamReader(new FileInputStream(outcomesFile), UTF_8))) {
+                String line = null;
+
+                while ((line = reader.readLine()) != null) {
+                    if (isNotBlank(line)) {
+                        lines += 1;
+
+                        try {
+                            JsonNode node = mapper.readTree(line);
+                            ArtifactKey key = ArtifactKey.parse(node.path(ARTIFACT).asText());
+                            String fingerprint = node.path(FINGERPRINT).asText();
+
+                            if (isNotBlank(fingerprint) && node.has(LICENSE)) {
+                                outcomes.put(key, new Outcome(fingerprint, node.get(LICENSE)));
+                            } else {
+                                outcomes.remove(key);
+                            }
+                        } catch (Exception exception) {
+                            log.debug("{}: {}", outcomesFile, exception.getMessage(), exception);
+                        }
+                    }
+                }
+            } catch (Exception exception) {
+                log.error("Cannot read {}", outcomesFile);
+            }
 
-        for (Map.Entry<Artifact,AnyLicenseInfo> entry : entrySet()) {
-            AnyLicenseInfo license = entry.getValue();
+            if (lines > 2 * outcomes.size()) {
+                compact();
+            }
+        }
+    }
 
-            if (isFullySpdxListed(license)) {
-                String key = ArtifactUtils.key(entry.getKey());
-                String value = license.toString();
+    private void compact() {
+        File tmp = new File(outcomesFile.getParentFile(), outcomesFile.getName() + ".tmp");
 
-                dirty |= (! Objects.equals(value, catalog.put(key, value)));
+        try {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), UTF_8))) {
+                for (Map.Entry<ArtifactKey,Outcome> entry : outcomes.entrySet()) {
+                    writer.write(mapper.writeValueAsString(toJson(entry.getKey(), entry.getValue())));
+                    writer.write("\n");
+                }
             }
+
+            Files.move(tmp.toPath(), outcomesFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException exception) {
+            log.warn("Cannot write {}", outcomesFile);
+            tmp.delete();
         }
+    }
+
+    protected synchronized void flush() {
+        boolean dirty = (unwritten || (! file.exists()));
+        ArtifactKey key = null;
+        /*
+         * Only keys put since the last flush are examined (a key is
+         * dequeued before its value is read so a concurrent put is seen
+         * by the next flush).  Values matched by a wildcard or
+         * version-range entry are not written back as individual
+         * entries.  Values are written as canonical LicenseExpression
+         * keys.
+         */
+        while ((key = changed.pollFirst()) != null) {
+            AnyLicenseInfo license = super.get(key);
 
+            if (license != null && isFullySpdxListed(license)) {
+                LicenseExpression expression = LicenseExpression.of(license);
+
+                if (! expression.equals(patterns.get(key))) {
+                    String value = expression.toString();
+
+                    dirty |= (! Objects.equals(value, catalog.put(key.toString(), value)));
+                }
+            }
+        }
+        /*
+         * After a failure the catalog is rewritten on the next flush.
+         */
         if (dirty) {
             try (FileOutputStream out = new FileOutputStream(file)) {
                 catalog.storeToXML(out, file.getName());
+                unwritten = false;
             } catch (IOException exception) {
                 log.warn("Cannot write {}", file);
+                unwritten = true;
+            }
+        }
+
+        /*
+         * Only outcomes recorded since the last flush are appended.
+         */
+        if (! journal.isEmpty()) {
+            try (Writer writer =
+                     new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outcomesFile, true), UTF_8))) {
+                ObjectNode node = null;
+
+                while ((node = journal.poll()) != null) {
+                    writer.write(mapper.writeValueAsString(node));
+                    writer.write("\n");
+                }
+            } catch (IOException exception) {
+                log.warn("Cannot write {}", outcomesFile);
             }
         }
     }
 
+    private ObjectNode toJson(ArtifactKey key, Outcome outcome) {
+        ObjectNode node = mapper.createObjectNode().put(ARTIFACT, key.toString());
+
+        if (outcome != null) {
+            node.put(FINGERPRINT, outcome.getFingerprint()).set(LICENSE, outcome.getLicense());
+        }
+
+        return node;
+    }
+
     @PostConstruct
     public void init() {
         load();
@@ -201,25 +355,393 @@ public class ArtifactLicenseCatalog extends TreeMap<Artifact,AnyLicenseInfo> {
         log.debug("{}.size() = {}", getClass().getSimpleName(), size());
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * If {@code key} is an {@link Artifact}, any missing value is
+     * calculated and cached.  Exact {@code groupId:artifactId:version}
+     * entries take precedence over version-range and wildcard entries
+     * which, in turn, take precedence over any calculated value.
+     */
     @Override
     public AnyLicenseInfo get(Object key) {
-        AnyLicenseInfo value = super.get(key);
+        Object object = (key instanceof Artifact) ? ArtifactKey.of((Artifact) key) : key;
+        AnyLicenseInfo value = super.get(object);
 
-        if (value == null) {
-            value = compute((Artifact) key);
+        if (value == null && object instanceof ArtifactKey) {
+            value = restore((ArtifactKey) object);
+        }
+
+        if (value == null && key instanceof Artifact) {
+            Artifact artifact = (Artifact) key;
+            String fingerprint = fingerprintOf(artifact);
 
-            put((Artifact) key, value);
+            value = restore(artifact, fingerprint);
 
-            if ((size() % FLUSH_PERIOD) == 0) {
-                flush();
+            if (value == null) {
+                value = compute(artifact);
+
+                record(artifact, fingerprint, value);
+            }
+
+            if (value != null) {
+                put(ArtifactKey.of(artifact), value);
+
+                if ((computed.incrementAndGet() % FLUSH_PERIOD) == 0) {
+                    flush();
+                }
             }
         }
 
         return value;
     }
 
+    @Override
+    public AnyLicenseInfo put(ArtifactKey key, AnyLicenseInfo value) {
+        expressions.remove(key);
+
+        AnyLicenseInfo previous = super.put(key, value);
+
+        changed.add(key);
+
+        return previous;
+    }
+
+    @Override
+    public AnyLicenseInfo remove(Object key) {
+        expressions.remove(key);
+        changed.remove(key);
+
+        return super.remove(key);
+    }
+
+    /**
+     * Method to get an {@link Artifact}'s license as a
+     * {@link LicenseExpression}.  Catalog (exact, version-range, and
+     * wildcard) entries are answered without converting to (or loading)
+     * the spdx-tools model; any other value is calculated with
+     * {@link #get(Object)} and its {@link LicenseExpression} is cached.
+     *
+     * @param   artifact        The {@link Artifact}.
+     *
+     * @return  The {@link LicenseExpression} or {@code null} if none.
+     */
+    public LicenseExpression getExpression(Artifact artifact) {
+        ArtifactKey key = ArtifactKey.of(artifact);
+        LicenseExpression expression = expressions.get(key);
+
+        if (expression == null && (! containsKey(key))) {
+            expression = patterns.get(key);
+        }
+
+        if (expression == null) {
+            expression = LicenseExpression.of(get(artifact));
+
+            if (expression != null) {
+                expressions.putIfAbsent(key, expression);
+            }
+        }
+
+        return expression;
+    }
+
+    /*
+     * Catalog entries are converted to AnyLicenseInfo on first access.
+     */
+    private AnyLicenseInfo restore(ArtifactKey key) {
+        AnyLicenseInfo value = null;
+        LicenseExpression expression = expressions.get(key);
+
+        if (expression == null) {
+            expression = patterns.get(key);
+        }
+
+        if (expression != null) {
+            try {
+                value = expression.toLicenseInfo();
+
+                AnyLicenseInfo previous = putIfAbsent(key, value);
+
+                if (previous != null) {
+                    value = previous;
+                }
+            } catch (Exception exception) {
+                log.error("{}: Cannot parse '{}'", key, expression);
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Method to get the license document {@link URL}s (HTTP and HTTPS only)
+     * the calculation of an {@link Artifact}'s license will fetch: The
+     * SBOM, {@code Bundle-License} manifest header, and POM {@link URL}s
+     * of licenses that are not identified by name, in the order the
+     * calculation consults them.  Empty if the value is already known
+     * (cataloged, matched by a version-range or wildcard entry, or
+     * restorable from a persisted outcome with a matching fingerprint).
+     *
+     * @param   artifact        The {@link Artifact}.
+     *
+     * @return  The {@link Set} of {@link URL}s ({@link String}
+     *          representations).
+     */
+    public Set<String> getCandidateURLs(Artifact artifact) {
+        Set<String> set = new TreeSet<>();
+        ArtifactKey key = ArtifactKey.of(artifact);
+
+        if ((! containsKey(key)) && (! expressions.containsKey(key)) && patterns.get(key) == null
+            && (! isRestorable(artifact))) {
+            List<SBOMParser.Claim> claims = getSBOMClaims(artifact);
+            boolean identified = (! claims.isEmpty());
+
+            for (SBOMParser.Claim claim : claims) {
+                identified &= addCandidateURLs(set, claim.getId(), resolve(null, claim.getUrl()));
+            }
+
+            if (! identified) {
+                identified = addBundleCandidateURLs(set, artifact);
+            }
+
+            if (! identified) {
+                Model model = cache.get(artifact);
+
+                if (model != null && model.getLicenses() != null) {
+                    for (org.apache.maven.model.License license : model.getLicenses()) {
+                        addCandidateURLs(set,
+                                         (license.getName() != null) ? license.getName().replaceAll(",", "") : null,
+                                         resolve(toURL(model.getUrl()), license.getUrl()));
+                    }
+                }
+            }
+        }
+
+        return set;
+    }
+
+    private boolean addBundleCandidateURLs(Set<String> set, Artifact artifact) {
+        boolean identified = false;
+
+        try {
+            Manifest manifest = ArtifactScanner.of(artifact.getFile()).getManifest(artifact.getFile());
+            String value = (manifest != null) ? manifest.getMainAttributes().getValue("Bundle-License") : null;
+
+            if (isNotBlank(value)) {
+                Pattern pattern = Pattern.compile("((?<id>.+);link=)?(?<url>.*)");
+
+                identified = true;
+
+                for (String string : value.split(",")) {
+                    Matcher matcher = pattern.matcher(string.trim());
+
+                    if (matcher.matches()) {
+                        identified &= addCandidateURLs(set, matcher.group("id"), resolve(null, matcher.group("url")));
+                    }
+                }
+            }
+        } catch (IOException exception) {
+            log.debug("{}: {}", artifact, exception.getMessage(), exception);
+        }
+
+        return identified;
+    }
+
+    /*
+     * The URLs of a license are fetched (see URLLicenseInfoParser.parse())
+     * only if its name is not in the LicenseMap.
+     */
+    private boolean addCandidateURLs(Set<String> set, String id, String... urls) {
+        boolean identified = isNotBlank(id) && map.get().get(id) != null;
+
+        if (! identified) {
+            for (String url : urls) {
+                if (url.matches("(?i)https?://.+")) {
+                    set.add(url);
+                }
+            }
+        }
+
+        return identified;
+    }
+
+    private boolean isRestorable(Artifact artifact) {
+        boolean restorable = false;
+        Outcome outcome = outcomes.get(ArtifactKey.of(artifact));
+
+        if (outcome != null) {
+            String fingerprint = fingerprintOf(artifact);
+
+            restorable = (fingerprint != null && fingerprint.equals(outcome.getFingerprint()));
+        }
+
+        return restorable;
+    }
+
+    /*
+     * Outcomes that are not fully SPDX listed are persisted with a
+     * fingerprint of the evidence (artifact, POM, and SBOMs) and reused
+     * until that evidence changes.
+     */
+    private AnyLicenseInfo restore(Artifact artifact, String fingerprint) {
+        AnyLicenseInfo value = null;
+
+        if (fingerprint != null) {
+            Outcome outcome = outcomes.get(ArtifactKey.of(artifact));
+
+            if (outcome != null && fingerprint.equals(outcome.getFingerprint())) {
+                value = LicenseInfoJson.fromJson(outcome.getLicense(), resolver.get()::parseLicenseString);
+            }
+        }
+
+        return value;
+    }
+
+    private void record(Artifact artifact, String fingerprint, AnyLicenseInfo value) {
+        ArtifactKey key = ArtifactKey.of(artifact);
+
+        if (fingerprint != null && value != null && (! isFullySpdxListed(value))) {
+            JsonNode node = LicenseInfoJson.toJson(value);
+
+            if (node != null) {
+                Outcome outcome = new Outcome(fingerprint, node);
+
+                outcomes.put(key, outcome);
+                journal.add(toJson(key, outcome));
+            }
+        } else if (outcomes.remove(key) != null) {
+            journal.add(toJson(key, null));
+        }
+    }
+
+    private String fingerprintOf(Artifact artifact) {
+        String fingerprint = null;
+        File file = artifact.getFile();
+
+        if (file != null && file.isFile()) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-1");
+                List<File> files = new ArrayList<>();
+
+                digest.update(String.valueOf(salt).getBytes(UTF_8));
+                digest.update((byte) 0);
+
+                files.add(file);
+                files.add(new File(file.getParentFile(),
+                                   artifact.getArtifactId() + "-" + artifact.getVersion() + ".pom"));
+                files.addAll(sbomParser.locate(artifact));
+
+                for (File evidence : files) {
+                    digest.update(digestOf(evidence).getBytes(UTF_8));
+                    digest.update((byte) 0);
+                }
+
+                fingerprint = toHex(digest.digest());
+            } catch (Exception exception) {
+                log.debug("{}: {}", artifact, exception.getMessage(), exception);
+            }
+        }
+
+        return fingerprint;
+    }
+
+    private String saltOf() {
+        String salt = null;
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+
+            digest.update(String.valueOf(getClass().getPackage().getImplementationVersion()).getBytes(UTF_8));
+
+            for (String name : SALT_RESOURCES) {
+                digest.update((byte) 0);
+
+                try (InputStream in = getClass().getResourceAsStream(name)) {
+                    if (in != null) {
+                        byte[] buffer = new byte[64 * 1024];
+                        int count = 0;
+
+                        while ((count = in.read(buffer)) > 0) {
+                            digest.update(buffer, 0, count);
+                        }
+                    }
+                }
+            }
+
+            salt = toHex(digest.digest());
+        } catch (Exception exception) {
+            log.debug("{}", exception.getMessage(), exception);
+        }
+
+        return salt;
+    }
+
+    private String digestOf(File file) throws Exception {
+        String digest = EMPTY;
+
+        if (file.isFile()) {
+            File sha1 = new File(file.getParentFile(), file.getName() + ".sha1");
+
+            if (sha1.isFile()) {
+                digest = new String(Files.readAllBytes(sha1.toPath()), UTF_8).trim().split("[\\p{Space}]+")[0];
+            }
+
+            if (! digest.matches("(?i)[0-9a-f]{40}")) {
+                MessageDigest md = MessageDigest.getInstance("SHA-1");
+                byte[] buffer = new byte[64 * 1024];
+
+                try (InputStream in = new FileInputStream(file)) {
+                    int count = 0;
+
+                    while ((count = in.read(buffer)) > 0) {
+                        md.update(buffer, 0, count);
+                    }
+                }
+
+                digest = toHex(md.digest());
+            }
+        }
+
+        return digest.toLowerCase();
+    }
+
+    private String toHex(byte[] bytes) {
+        StringBuilder buffer = new StringBuilder();
+
+        for (byte b : bytes) {
+            buffer.append(String.format("%02x", b));
+        }
+
+        return buffer.toString();
+    }
+
     private AnyLicenseInfo compute(Artifact artifact) {
-        URL url = toURL(artifact);
+        AnyLicenseInfo license = null;
+        /*
+         * Licenses specified in an SBOM published with the Artifact.  If
+         * the SBOM fully specifies the license(s), the Artifact is never
+         * opened.
+         */
+        List<AnyLicenseInfo> sbom = getSBOMLicenses(artifact);
+
+        if (isFullySpecified(sbom)) {
+            license = resolver.get().toLicense(sbom);
+        } else {
+            license = compute(artifact, sbom);
+        }
+        /*
+         * The parsed SBOMs are only cached between getCandidateURLs()
+         * and the calculation.
+         */
+        for (File file : sbomParser.locate(artifact)) {
+            sboms.remove(file);
+        }
+
+        return license;
+    }
+
+    private AnyLicenseInfo compute(Artifact artifact, List<AnyLicenseInfo> sbom) {
+        URL url = null;
         /*
          * Licenses specified in the Manifest Bundle-License
          * or found in the Artifact
@@ -228,11 +750,13 @@ public class ArtifactLicenseCatalog extends TreeMap<Artifact,AnyLicenseInfo> {
         List<AnyLicenseInfo> scanned = Collections.emptyList();
 
         try {
-            JarFile jar = ((JarURLConnection) url.openConnection()).getJarFile();
+            ArtifactScanner.Contents contents = ArtifactScanner.of(artifact.getFile()).scan(artifact.getFile());
+            URL root = contents.getRoot();
             Pattern pattern = Pattern.compile("((?<id>.+);link=)?(?<url>.*)");
 
+            url = root;
             bundle =
-                Stream.of(jar.getManifest())
+                Stream.of(contents.getManifest())
                 .filter(Objects::nonNull)
                 .map(t -> t.getMainAttributes().getValue("Bundle-License"))
                 .filter(StringUtils::isNotBlank)
@@ -241,15 +765,15 @@ public class ArtifactLicenseCatalog extends TreeMap<Artifact,AnyLicenseInfo> {
                 .distinct()
                 .map(pattern::matcher)
                 .filter(Matcher::matches)
-                .map(t -> parse(t.group("id"), resolve(url, t.group("url"))))
+                .map(t -> parse(t.group("id"), resolve(root, t.group("url"))))
                 .collect(toList());
 
             scanned =
-                jar.stream()
-                .map(JarEntry::getName)
-                .filter(INCLUDE)
-                .filter(EXCLUDE)
-                .map(t -> parse(t, resolve(url, t)))
+                contents.getEntries().stream()
+                .map(t -> (t.getText() != null)
+                              ? resolver.get().parse(new TextLicenseInfo(t.getName(), t.getText(), t.getLocation()))
+                              : parse(t.getName(), t.getUrl()))
+                .filter(Objects::nonNull)
                 .filter(t -> (! (t instanceof URLLicenseInfo)))
                 .collect(toList());
         } catch (ZipException exception) {
@@ -267,8 +791,11 @@ public class ArtifactLicenseCatalog extends TreeMap<Artifact,AnyLicenseInfo> {
          */
         List<AnyLicenseInfo> pom = Collections.emptyList();
         Model model = cache.get(artifact);
-
-        if (model != null) {
+        /*
+         * POM license URLs are not fetched if the Bundle-License fully
+         * specifies the license(s).
+         */
+        if (model != null && (! isFullySpecified(bundle))) {
             pom =
                 Stream.of(model.getLicenses())
                 .filter(Objects::nonNull)
@@ -279,12 +806,16 @@ public class ArtifactLicenseCatalog extends TreeMap<Artifact,AnyLicenseInfo> {
                 .collect(toList());
         }
 
-        if (bundle.isEmpty() && pom.isEmpty() && found.isEmpty()) {
+        if (bundle.isEmpty() && sbom.isEmpty() && pom.isEmpty() && found.isEmpty()) {
             log.warn("{}: No license(s) specified or found", artifact);
         }
 
         List<AnyLicenseInfo> licenses = bundle.stream().collect(toList());
 
+        if (licenses.isEmpty()) {
+            licenses.addAll(sbom);
+        }
+
         if (! isFullySpecified(licenses)) {
             if (licenses.isEmpty() || isFullySpecified(pom)) {
                 licenses.clear();
@@ -299,9 +830,10 @@ public class ArtifactLicenseCatalog extends TreeMap<Artifact,AnyLicenseInfo> {
 
         if ((! licenses.isEmpty()) && (! isFullySpecified(licenses))) {
             log.debug("------------------------------------------------------------");
-            log.debug("{}", ArtifactUtils.key(artifact));
+            log.debug("{}", ArtifactKey.of(artifact));
             log.debug("{}", url);
             log.debug("      Bundle: {}", bundle);
+            log.debug("        SBOM: {}", sbom);
             log.debug("         POM: {}", pom);
             log.debug("     Scanned: {}", scanned);
             log.debug("       Found: {}", found.values());
@@ -309,20 +841,45 @@ public class ArtifactLicenseCatalog extends TreeMap<Artifact,AnyLicenseInfo> {
             log.debug("------------------------------------------------------------");
         }
 
-        return resolver.toLicense(licenses);
+        return resolver.get().toLicense(licenses);
     }
 
-    private URL toURL(Artifact artifact) {
-        URL url = null;
+    private List<AnyLicenseInfo> getSBOMLicenses(Artifact artifact) {
+        return getSBOMClaims(artifact).stream()
+               .map(t -> parse(t.getId(), resolve(null, t.getUrl())))
+               .filter(Objects::nonNull)
+               .collect(toList());
+    }
+
+    /*
+     * Only the Artifact's own claims (as the subject of an SBOM published
+     * with it) are used: Claims in third-party SBOMs never override the
+     * Artifact's own evidence.  The first SBOM (in SBOMParser.locate()
+     * order) with a claim wins.
+     */
+    private List<SBOMParser.Claim> getSBOMClaims(Artifact artifact) {
+        List<SBOMParser.Claim> claims = null;
+        ArtifactKey key = ArtifactKey.of(artifact);
+
+        for (File file : sbomParser.locate(artifact)) {
+            if (claims == null) {
+                claims = sboms.computeIfAbsent(file, k -> parseSBOM(k)).get(key);
+            }
+        }
+
+        return (claims != null) ? claims : Collections.<SBOMParser.Claim>emptyList();
+    }
+
+    private Map<ArtifactKey,List<SBOMParser.Claim>> parseSBOM(File file) {
+        Map<ArtifactKey,List<SBOMParser.Claim>> map = Collections.emptyMap();
 
         try {
-            url = new URI("jar", artifact.getFile().toURI().toASCIIString() + "!/", null).toURL();
-        } catch(URISyntaxException | MalformedURLException exception) {
-            log.debug("{}: {}", artifact, exception.getMessage(), exception);
-            throw new IllegalStateException(exception);
+            map = sbomParser.parse(file);
+        } catch (Exception exception) {
+            log.debug("{}: {}", file, exception.getMessage(), exception);
         }
 
-        return url;
+        return map;
     }
 
     private URL toURL(String string) {
@@ -377,11 +934,11 @@ public class ArtifactLicenseCatalog extends TreeMap<Artifact,AnyLicenseInfo> {
     }
 
     private AnyLicenseInfo parse(String id, String... urls) {
-        AnyLicenseInfo option0 = isNotBlank(id) ? map.get(id) : null;
+        AnyLicenseInfo option0 = isNotBlank(id) ? map.get().get(id) : null;
         AnyLicenseInfo option1 = null;
 
         try {
-            option1 = isNotBlank(id) ? resolver.parseLicenseString(id) : null;
+            option1 = isNotBlank(id) ? resolver.get().parseLicenseString(id) : null;
         } catch (Exception exception) {
         }
 
@@ -389,7 +946,7 @@ public class ArtifactLicenseCatalog extends TreeMap<Artifact,AnyLicenseInfo> {
         AnyLicenseInfo[] options =
             Stream.of(option0, option1, option2)
             .filter(Objects::nonNull)
-            .map(t -> resolver.parse(t))
+            .map(t -> resolver.get().parse(t))
             .toArray(AnyLicenseInfo[]::new);
 
         Arrays.sort(options, SIEVE);
@@ -405,11 +962,9 @@ public class ArtifactLicenseCatalog extends TreeMap<Artifact,AnyLicenseInfo> {
         return ((! collection.isEmpty()) && collection.stream().allMatch(t -> isFullySpdxListed(t)));
     }
 
-    private class KeyArtifact extends DefaultArtifact {
-        public KeyArtifact(String gav) { this(gav.split(":", 3)); }
-
-        private KeyArtifact(String[] gav) {
-            super(gav[0], gav[1], gav[2], EMPTY, "pom", EMPTY, null);
-        }
+    @AllArgsConstructor @Getter @ToString
+    private static class Outcome {
+        private final String fingerprint;
+        private final JsonNode license;
     }
 }
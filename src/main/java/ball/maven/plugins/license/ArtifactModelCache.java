@@ -19,9 +19,13 @@ package ball.maven.plugins.license;
  * ##########################################################################
  */
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
@@ -30,6 +34,9 @@ import javax.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.License;
 import org.apache.maven.model.Model;
 import org.apache.maven.model.io.ModelReader;
 import org.apache.maven.project.DefaultProjectBuildingRequest;
@@ -39,15 +46,22 @@ import org.apache.maven.project.ProjectBuildingRequest;
 import static org.apache.maven.model.building.ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL;
 
 /**
- * {@link Artifact} to {@link Model} {@link java.util.Map}
+ * {@link ArtifactKey} ({@link Artifact}) to {@link Model} {@link java.util.Map}
  * implementation.  The {@link #get(Object)} method transparently calculates
  * and caches any value.
+ * <p>
+ * Complete {@link Model}s are weighed against a {@link CacheBudget}.
+ * Least-recently-used {@link Model}s over budget are replaced with a
+ * summary {@link Model} that retains only the coordinates, name, URL,
+ * and licenses (everything the plugin consumes) rather than being
+ * discarded and rebuilt from the POM.
+ * </p>
  *
  * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
  */
 @Named @Singleton
 @Slf4j
-public class ArtifactModelCache extends TreeMap<Artifact,Model> {
+public class ArtifactModelCache extends ConcurrentSkipListMap<ArtifactKey,Model> {
     private static final long serialVersionUID = 5197054494150680897L;
 
     public static final Comparator<Artifact> ORDER =
@@ -63,6 +77,7 @@ public class ArtifactModelCache extends TreeMap<Artifact,Model> {
     /** @serial */ private final MavenSession session;
     /** @serial */ private final ProjectBuilder builder;
     /** @serial */ private final ModelReader reader;
+    /** @serial */ private final CacheBudget<ArtifactKey> budget;
 
     /**
      * Sole constructor.
@@ -73,11 +88,12 @@ public class ArtifactModelCache extends TreeMap<Artifact,Model> {
      */
     @Inject
     public ArtifactModelCache(MavenSession session, ProjectBuilder builder, ModelReader reader) {
-        super(ORDER);
+        super();
 
         this.session = Objects.requireNonNull(session);
         this.builder = Objects.requireNonNull(builder);
         this.reader = Objects.requireNonNull(reader);
+        this.budget = new CacheBudget<>(session);
     }
 
     @PostConstruct
@@ -85,29 +101,131 @@ public class ArtifactModelCache extends TreeMap<Artifact,Model> {
 
     @PreDestroy
     public void destroy() {
-        log.debug("{}.size() = {}", getClass().getSimpleName(), size());
+        log.debug("{}.size() = {}; {}", getClass().getSimpleName(), size(), budget);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * If {@code key} is an {@link Artifact}, any missing value is
+     * calculated and cached.
+     */
     @Override
     public Model get(Object key) {
-        Model value = super.get(key);
+        Object k = (key instanceof Artifact) ? ArtifactKey.of((Artifact) key) : key;
+        Model value = super.get(k);
 
-        if (value == null) {
+        if (value != null) {
+            budget.touch((ArtifactKey) k);
+        } else if (key instanceof Artifact) {
             value = compute((Artifact) key);
 
-            put((Artifact) key, value);
+            if (value != null) {
+                put((ArtifactKey) k, value);
+            }
+        }
+
+        return value;
+    }
+
+    @Override
+    public Model put(ArtifactKey key, Model value) {
+        Model previous = super.put(key, value);
+
+        for (ArtifactKey victim : budget.admit(key, weigh(value))) {
+            Model model = super.get(victim);
+
+            if (model != null) {
+                super.replace(victim, model, summarize(model));
+            }
+        }
+
+        return previous;
+    }
+
+    @Override
+    public Model remove(Object key) {
+        Model value = super.remove(key);
+
+        if (key instanceof ArtifactKey) {
+            budget.remove((ArtifactKey) key);
         }
 
         return value;
     }
 
+    /*
+     * Rough estimate: a fixed overhead per model plus a per-element
+     * overhead for the (potentially large) collections.
+     */
+    private long weigh(Model model) {
+        long count = 1;
+
+        count += size(model.getDependencies());
+        count += size(model.getLicenses());
+        count += size(model.getDevelopers());
+        count += size(model.getContributors());
+        count += size(model.getModules());
+        count += size(model.getProfiles());
+        count += size(model.getRepositories());
+        count += size(model.getPluginRepositories());
+        count += (model.getProperties() != null) ? model.getProperties().size() : 0;
+
+        DependencyManagement management = model.getDependencyManagement();
+
+        if (management != null) {
+            count += size(management.getDependencies());
+        }
+
+        Build build = model.getBuild();
+
+        if (build != null) {
+            count += size(build.getPlugins());
+
+            if (build.getPluginManagement() != null) {
+                count += size(build.getPluginManagement().getPlugins());
+            }
+        }
+
+        return 512 * count;
+    }
+
+    private int size(Collection<?> collection) {
+        return (collection != null) ? collection.size() : 0;
+    }
+
+    private Model summarize(Model model) {
+        Model summary = new Model();
+
+        summary.setModelVersion(model.getModelVersion());
+        summary.setGroupId(model.getGroupId());
+        summary.setArtifactId(model.getArtifactId());
+        summary.setVersion(model.getVersion());
+        summary.setPackaging(model.getPackaging());
+        summary.setName(model.getName());
+        summary.setUrl(model.getUrl());
+
+        if (model.getLicenses() != null) {
+            List<License> licenses = new ArrayList<>();
+
+            for (License license : model.getLicenses()) {
+                licenses.add(license.clone());
+            }
+
+            summary.setLicenses(licenses);
+        }
+
+        return summary;
+    }
+
     private Model compute(Artifact artifact) {
         File file =
             new File(artifact.getFile().getParentFile(),
                      artifact.getArtifactId() + "-" + artifact.getVersion() + ".pom");
+        ArtifactKey key = ArtifactKey.of(artifact);
         Model model =
             session.getProjects().stream()
-            .filter(t -> ORDER.compare(t.getArtifact(), artifact) == 0)
+            .filter(t -> key.equals(ArtifactKey.of(t.getArtifact())))
             .map(t -> t.getModel())
             .filter(Objects::nonNull)
             .findFirst().orElse(null);
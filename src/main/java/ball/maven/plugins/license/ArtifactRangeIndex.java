@@ -0,0 +1,272 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.artifact.versioning.Restriction;
+import org.apache.maven.artifact.versioning.VersionRange;
+
+/**
+ * Index of {@code groupId:*}, {@code groupId:artifactId:*}, and
+ * {@code groupId:artifactId:<version-range>} keys (e.g.,
+ * {@code com.thoughtworks.paranamer:paranamer:[2.0,3.0)}).  Organized as a
+ * {@code groupId} / {@code artifactId} trie with each leaf holding its
+ * version intervals sorted by lower bound.  Look-up precedence is version
+ * range, then {@code groupId:artifactId:*}, then {@code groupId:*}.
+ *
+ * @param       <V>             The value type.
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@NoArgsConstructor @ToString
+public class ArtifactRangeIndex<V> {
+    private static final String ANY = "*";
+
+    private final Map<String,Group<V>> groups = new ConcurrentHashMap<>();
+
+    /**
+     * Static method to test if a catalog key is a pattern (and not a
+     * {@code groupId:artifactId:version} key).
+     *
+     * @param   key             The catalog key.
+     *
+     * @return  {@code true} if a pattern; {@code false} otherwise.
+     */
+    public static boolean isPattern(String key) {
+        String[] gav = key.trim().split(":", 3);
+        boolean isPattern = false;
+
+        switch (gav.length) {
+        case 2:
+            isPattern = gav[1].equals(ANY);
+            break;
+
+        case 3:
+            isPattern = gav[2].equals(ANY) || gav[2].startsWith("[") || gav[2].startsWith("(");
+            break;
+
+        default:
+            break;
+        }
+
+        return isPattern;
+    }
+
+    /**
+     * Method to add a pattern.
+     *
+     * @param   key             The pattern (see {@link #isPattern(String)}).
+     * @param   value           The value.
+     *
+     * @throws  IllegalArgumentException
+     *                          If {@code key} is not a pattern or the
+     *                          version range cannot be parsed.
+     */
+    public synchronized void put(String key, V value) {
+        if (! isPattern(key)) {
+            throw new IllegalArgumentException(key);
+        }
+
+        String[] gav = key.trim().split(":", 3);
+        Group<V> group = groups.computeIfAbsent(fold(gav[0]), k -> new Group<>());
+
+        if (gav.length == 2) {
+            group.any = value;
+        } else {
+            Node<V> node = group.artifacts.computeIfAbsent(fold(gav[1]), k -> new Node<>());
+
+            if (gav[2].equals(ANY)) {
+                node.any = value;
+            } else {
+                try {
+                    for (Restriction restriction : VersionRange.createFromVersionSpec(gav[2]).getRestrictions()) {
+                        node.add(restriction, value);
+                    }
+                } catch (InvalidVersionSpecificationException exception) {
+                    throw new IllegalArgumentException(key, exception);
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to get the value for an {@link ArtifactKey}.
+     *
+     * @param   key             The {@link ArtifactKey}.
+     *
+     * @return  The value or {@code null} if no pattern matches.
+     */
+    public V get(ArtifactKey key) {
+        V value = null;
+        Group<V> group = groups.get(fold(key.getGroupId()));
+
+        if (group != null) {
+            Node<V> node = group.artifacts.get(fold(key.getArtifactId()));
+
+            if (node != null) {
+                value = node.get(new DefaultArtifactVersion(key.getVersion()));
+
+                if (value == null) {
+                    value = node.any;
+                }
+            }
+
+            if (value == null) {
+                value = group.any;
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Method to test if the index is empty.
+     *
+     * @return  {@code true} if empty; {@code false} otherwise.
+     */
+    public boolean isEmpty() { return groups.isEmpty(); }
+
+    private static String fold(String string) {
+        return string.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @NoArgsConstructor @ToString
+    private static class Group<V> {
+        private final Map<String,Node<V>> artifacts = new ConcurrentHashMap<>();
+        private volatile V any = null;
+    }
+
+    @NoArgsConstructor @ToString
+    private static class Node<V> {
+        private final List<Interval<V>> list = new ArrayList<>();
+        private volatile Interval<V>[] intervals = array(0);
+        private volatile Interval<V>[] reach = array(0);
+        private volatile V any = null;
+
+        /*
+         * Intervals are kept sorted by lower bound (unbounded first; equal
+         * lower bounds in reverse insertion order) and reach[i] is the
+         * interval with the greatest upper bound among intervals[0..i].
+         */
+        public synchronized void add(Restriction restriction, V value) {
+            list.add(new Interval<>(restriction, value));
+
+            Interval<V>[] intervals = array(list.size());
+
+            for (int i = 0; i < intervals.length; i += 1) {
+                intervals[i] = list.get(intervals.length - 1 - i);
+            }
+
+            Arrays.sort(intervals, (t, u) -> compareLower(t.restriction, u.restriction));
+
+            Interval<V>[] reach = array(intervals.length);
+
+            for (int i = 0; i < intervals.length; i += 1) {
+                reach[i] = intervals[i];
+
+                if (i > 0 && compareUpper(reach[i - 1].restriction, reach[i].restriction) > 0) {
+                    reach[i] = reach[i - 1];
+                }
+            }
+
+            this.reach = reach;
+            this.intervals = intervals;
+        }
+
+        /*
+         * Binary search for the last interval with a lower bound not
+         * exceeding the version, then examine intervals downwards only
+         * while an interval at or below may still reach the version.
+         */
+        public V get(ArtifactVersion version) {
+            Interval<V>[] intervals = this.intervals;
+            Interval<V>[] reach = this.reach;
+            V value = null;
+            int low = 0;
+            int high = intervals.length - 1;
+
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                ArtifactVersion lower = intervals[middle].restriction.getLowerBound();
+
+                if (lower == null || lower.compareTo(version) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+
+            for (int i = high; value == null && i >= 0 && reaches(reach[i].restriction, version); i -= 1) {
+                if (intervals[i].restriction.containsVersion(version)) {
+                    value = intervals[i].value;
+                }
+            }
+
+            return value;
+        }
+
+        private static boolean reaches(Restriction restriction, ArtifactVersion version) {
+            ArtifactVersion upper = restriction.getUpperBound();
+            int comparison = (upper != null) ? version.compareTo(upper) : -1;
+
+            return (comparison < 0 || (comparison == 0 && restriction.isUpperBoundInclusive()));
+        }
+
+        private static int compareLower(Restriction left, Restriction right) {
+            ArtifactVersion l = left.getLowerBound();
+            ArtifactVersion r = right.getLowerBound();
+
+            return (l == null) ? ((r == null) ? 0 : -1) : ((r == null) ? 1 : l.compareTo(r));
+        }
+
+        private static int compareUpper(Restriction left, Restriction right) {
+            ArtifactVersion l = left.getUpperBound();
+            ArtifactVersion r = right.getUpperBound();
+            int comparison = (l == null) ? ((r == null) ? 0 : 1) : ((r == null) ? -1 : l.compareTo(r));
+
+            if (comparison == 0 && l != null) {
+                comparison = Boolean.compare(left.isUpperBoundInclusive(), right.isUpperBoundInclusive());
+            }
+
+            return comparison;
+        }
+
+        @SuppressWarnings({ "unchecked" })
+        private static <V> Interval<V>[] array(int length) {
+            return (Interval<V>[]) new Interval<?>[length];
+        }
+    }
+
+    @AllArgsConstructor @ToString
+    private static class Interval<V> {
+        private final Restriction restriction;
+        private final V value;
+    }
+}
@@ -0,0 +1,367 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static lombok.AccessLevel.PROTECTED;
+
+/**
+ * Artifact {@link File} scanner: Locates the {@link Manifest} and any
+ * license files in a JAR (or other ZIP-format archive), a ZIP or tar(.gz)
+ * distribution, or an exploded (reactor) directory without extracting
+ * the contents to disk.
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@NoArgsConstructor(access = PROTECTED) @ToString
+public abstract class ArtifactScanner {
+    private static final Predicate<String> INCLUDE =
+        Pattern.compile("(?i)^(.*/|)(LICENSE([.][^/]+)?|about.html)$")
+        .asPredicate();
+    private static final Predicate<String> EXCLUDE =
+        Pattern.compile("(?i)^.*[.]class$")
+        .asPredicate().negate();
+    private static final Pattern TAR = Pattern.compile("(?i)^.*[.](tar|tar[.]gz|tgz)$");
+    private static final Pattern ZIP = Pattern.compile("(?i)^.*[.](zip)$");
+    private static final Pattern POM = Pattern.compile("(?i)^.*[.](pom)$");
+
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+    private static final int MAX_TEXT = 1024 * 1024;
+
+    /**
+     * Static method to get the {@link ArtifactScanner} appropriate for the
+     * {@link File} type.
+     *
+     * @param   file            The artifact {@link File}.
+     *
+     * @return  The {@link ArtifactScanner}.
+     */
+    public static ArtifactScanner of(File file) {
+        ArtifactScanner scanner = null;
+
+        if (file == null || POM.matcher(file.getName()).matches()) {
+            scanner = new NoneImpl();
+        } else if (file.isDirectory()) {
+            scanner = new DirectoryImpl();
+        } else if (TAR.matcher(file.getName()).matches()) {
+            scanner = new TarImpl();
+        } else if (ZIP.matcher(file.getName()).matches()) {
+            scanner = new ZipImpl();
+        } else {
+            scanner = new JarImpl();
+        }
+
+        return scanner;
+    }
+
+    /**
+     * Method to scan an artifact {@link File}.
+     *
+     * @param   file            The artifact {@link File}.
+     *
+     * @return  The {@link Contents}.
+     *
+     * @throws  IOException     If the {@link File} cannot be read.
+     */
+    public abstract Contents scan(File file) throws IOException;
+
+    /**
+     * Method to read only the {@link Manifest} of an artifact
+     * {@link File}.  Archive streams are read only until the
+     * {@link Manifest} is found and license file candidates are not read.
+     *
+     * @param   file            The artifact {@link File}.
+     *
+     * @return  The {@link Manifest} or {@code null} if none.
+     *
+     * @throws  IOException     If the {@link File} cannot be read.
+     */
+    public abstract Manifest getManifest(File file) throws IOException;
+
+    /**
+     * Method to test if an entry name is a license file candidate.
+     *
+     * @param   name            The entry name.
+     *
+     * @return  {@code true} if a candidate; {@code false} otherwise.
+     */
+    protected static boolean isCandidate(String name) {
+        return INCLUDE.test(name) && EXCLUDE.test(name);
+    }
+
+    /**
+     * Method to read (bounded) text from an {@link InputStream}.  The
+     * {@link InputStream} is not closed.
+     *
+     * @param   in              The {@link InputStream}.
+     *
+     * @return  The text.
+     *
+     * @throws  IOException     If the {@link InputStream} cannot be read.
+     */
+    protected static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int count = 0;
+
+        while (out.size() < MAX_TEXT && (count = in.read(buffer, 0, Math.min(buffer.length, MAX_TEXT - out.size()))) > 0) {
+            out.write(buffer, 0, count);
+        }
+
+        return new String(out.toByteArray(), UTF_8);
+    }
+
+    /**
+     * Scanned artifact contents: The root {@link URL} (if any) to resolve
+     * relative references against, the {@link Manifest} (if any), and the
+     * license file {@link Entry Entries}.
+     *
+     * {@bean.info}
+     */
+    @AllArgsConstructor @Getter @ToString
+    public static class Contents {
+        private final URL root;
+        private final Manifest manifest;
+        private final List<Entry> entries;
+    }
+
+    /**
+     * License file entry.  Either {@link #getUrl()} or {@link #getText()}
+     * is non-{@code null}; {@link #getLocation()} is always specified.
+     *
+     * {@bean.info}
+     */
+    @AllArgsConstructor @Getter @ToString
+    public static class Entry {
+        private final String name;
+        private final String location;
+        private final String url;
+        private final String text;
+    }
+
+    @NoArgsConstructor @ToString
+    private static class NoneImpl extends ArtifactScanner {
+        @Override
+        public Contents scan(File file) {
+            return new Contents(null, null, Collections.emptyList());
+        }
+
+        @Override
+        public Manifest getManifest(File file) { return null; }
+    }
+
+    @NoArgsConstructor @ToString
+    private static class JarImpl extends ArtifactScanner {
+        @Override
+        public Contents scan(File file) throws IOException {
+            String root = "jar:" + file.toURI().toASCIIString() + "!/";
+            JarFile jar = getJarFile(root);
+            List<Entry> entries =
+                jar.stream()
+                .map(JarEntry::getName)
+                .filter(ArtifactScanner::isCandidate)
+                .map(t -> new Entry(t, root + t, root + t, null))
+                .collect(toList());
+
+            return new Contents(new URL(root), jar.getManifest(), entries);
+        }
+
+        @Override
+        public Manifest getManifest(File file) throws IOException {
+            return getJarFile("jar:" + file.toURI().toASCIIString() + "!/").getManifest();
+        }
+
+        private JarFile getJarFile(String root) throws IOException {
+            return ((JarURLConnection) new URL(root).openConnection()).getJarFile();
+        }
+    }
+
+    @NoArgsConstructor @ToString
+    private static class DirectoryImpl extends ArtifactScanner {
+        @Override
+        public Contents scan(File file) throws IOException {
+            Path root = file.toPath();
+            Manifest manifest = getManifest(file);
+            List<Entry> entries =
+                walk(root)
+                .map(t -> t.toUri().toASCIIString())
+                .map(t -> new Entry(root.toUri().relativize(URI.create(t)).toString(), t, t, null))
+                .collect(toList());
+
+            return new Contents(root.toUri().toURL(), manifest, entries);
+        }
+
+        @Override
+        public Manifest getManifest(File file) throws IOException {
+            Manifest manifest = null;
+            File mf = new File(file, MANIFEST);
+
+            if (mf.isFile()) {
+                try (InputStream in = new FileInputStream(mf)) {
+                    manifest = new Manifest(in);
+                }
+            }
+
+            return manifest;
+        }
+
+        /*
+         * Only names that may be directories (no extension) or that are
+         * license file candidates are stat'ed.
+         */
+        private Stream<Path> walk(Path directory) {
+            String[] names = directory.toFile().list();
+
+            return Stream.of((names != null) ? names : new String[] { })
+                .parallel()
+                .filter(EXCLUDE)
+                .flatMap(t -> {
+                        Path path = directory.resolve(t);
+                        Stream<Path> stream = Stream.empty();
+
+                        if (INCLUDE.test(t)) {
+                            if (Files.isRegularFile(path)) {
+                                stream = Stream.of(path);
+                            } else if (Files.isDirectory(path)) {
+                                stream = walk(path);
+                            }
+                        } else if (t.indexOf('.') < 0) {
+                            if (Files.isDirectory(path)) {
+                                stream = walk(path);
+                            }
+                        }
+
+                        return stream;
+                    })
+                .collect(toList())
+                .stream();
+        }
+    }
+
+    @NoArgsConstructor @ToString
+    private static class ZipImpl extends ArtifactScanner {
+        @Override
+        public Contents scan(File file) throws IOException {
+            return scan(file, false);
+        }
+
+        @Override
+        public Manifest getManifest(File file) throws IOException {
+            return scan(file, true).getManifest();
+        }
+
+        private Contents scan(File file, boolean manifestOnly) throws IOException {
+            String root = file.toURI().toASCIIString() + "!/";
+            Manifest manifest = null;
+            List<Entry> entries = new ArrayList<>();
+
+            try (ZipInputStream in = new ZipInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                ZipEntry entry = null;
+
+                while ((! (manifestOnly && manifest != null)) && (entry = in.getNextEntry()) != null) {
+                    if (! entry.isDirectory()) {
+                        String name = entry.getName();
+
+                        if (name.equalsIgnoreCase(MANIFEST)) {
+                            manifest = new Manifest(in);
+                        } else if (isCandidate(name) && (! manifestOnly)) {
+                            entries.add(new Entry(name, root + name, null, read(in)));
+                        }
+                    }
+                }
+            }
+
+            return new Contents(null, manifest, entries);
+        }
+    }
+
+    @NoArgsConstructor @ToString
+    private static class TarImpl extends ArtifactScanner {
+        @Override
+        public Contents scan(File file) throws IOException {
+            return scan(file, false);
+        }
+
+        @Override
+        public Manifest getManifest(File file) throws IOException {
+            return scan(file, true).getManifest();
+        }
+
+        private Contents scan(File file, boolean manifestOnly) throws IOException {
+            String root = file.toURI().toASCIIString() + "!/";
+            Manifest manifest = null;
+            List<Entry> entries = new ArrayList<>();
+            InputStream stream = new BufferedInputStream(new FileInputStream(file));
+
+            try (TarArchiveInputStream in =
+                     new TarArchiveInputStream(file.getName().toLowerCase().endsWith(".tar")
+                                                   ? stream : new GZIPInputStream(stream))) {
+                TarArchiveEntry entry = null;
+
+                while ((! (manifestOnly && manifest != null)) && (entry = in.getNextEntry()) != null) {
+                    if (entry.isFile()) {
+                        String name = entry.getName().replaceFirst("^[.]/", "");
+
+                        if (name.equalsIgnoreCase(MANIFEST)) {
+                            manifest = new Manifest(in);
+                        } else if (isCandidate(name) && (! manifestOnly)) {
+                            entries.add(new Entry(name, root + name, null, read(in)));
+                        }
+                    }
+                }
+            } finally {
+                stream.close();
+            }
+
+            return new Contents(null, manifest, entries);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.execution.MavenSession;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Weight budget for in-memory caches.  Tracks the (estimated) weight of
+ * admitted keys in least-recently-used order and selects the victims to
+ * evict once the total exceeds the maximum.  The maximum is configured
+ * with {@code license.cache.maximumWeight} (session user or system
+ * property; estimated bytes per cache; default 32 MiB).  The cache
+ * decides what becomes of a victim: {@link ArtifactModelCache} replaces
+ * it with a summary and {@link URLLicenseInfoParser} spills it to a
+ * build-scoped temporary file.
+ *
+ * @param       <K>             The key type.
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@Slf4j
+public class CacheBudget<K> {
+    private static final String MAXIMUM_WEIGHT = "license.cache.maximumWeight";
+    private static final long DEFAULT_MAXIMUM_WEIGHT = 32L * 1024 * 1024;
+
+    private final long maximum;
+    private final LinkedHashMap<K,Long> weights = new LinkedHashMap<>(16, 0.75f, true);
+    private long total = 0;
+    private long evictions = 0;
+
+    /**
+     * Sole constructor.
+     *
+     * @param   session         The {@link MavenSession} (for
+     *                          configuration).
+     */
+    public CacheBudget(MavenSession session) {
+        String value = session.getUserProperties().getProperty(MAXIMUM_WEIGHT);
+
+        if (value == null) {
+            value = session.getSystemProperties().getProperty(MAXIMUM_WEIGHT);
+        }
+
+        long maximum = DEFAULT_MAXIMUM_WEIGHT;
+
+        if (isNotBlank(value)) {
+            try {
+                maximum = Math.max(0, Long.parseLong(value.trim()));
+            } catch (NumberFormatException exception) {
+                log.warn("{}: Invalid {} value '{}'", getClass().getSimpleName(), MAXIMUM_WEIGHT, value);
+            }
+        }
+
+        this.maximum = maximum;
+    }
+
+    /**
+     * Method to admit (or re-weigh) a key.  {@code key} itself is never
+     * selected as a victim.
+     *
+     * @param   key             The key.
+     * @param   weight          The estimated weight (bytes).
+     *
+     * @return  The {@link List} of keys to evict (may be empty).
+     */
+    public synchronized List<K> admit(K key, long weight) {
+        List<K> victims = new ArrayList<>();
+        Long previous = weights.put(key, weight);
+
+        total += weight - ((previous != null) ? previous : 0L);
+
+        Iterator<Map.Entry<K,Long>> iterator = weights.entrySet().iterator();
+
+        while (total > maximum && iterator.hasNext()) {
+            Map.Entry<K,Long> entry = iterator.next();
+
+            if (! entry.getKey().equals(key)) {
+                victims.add(entry.getKey());
+                total -= entry.getValue();
+                evictions += 1;
+                iterator.remove();
+            }
+        }
+
+        return victims;
+    }
+
+    /**
+     * Method to mark a key as recently used.
+     *
+     * @param   key             The key.
+     */
+    public synchronized void touch(K key) { weights.get(key); }
+
+    /**
+     * Method to forget a key.
+     *
+     * @param   key             The key.
+     */
+    public synchronized void remove(K key) {
+        Long weight = weights.remove(key);
+
+        if (weight != null) {
+            total -= weight;
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s(maximum=%d, total=%d, size=%d, evictions=%d)",
+                             getClass().getSimpleName(), maximum, total, weights.size(), evictions);
+    }
+}
@@ -25,7 +25,6 @@ import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -35,9 +34,12 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import javax.inject.Inject;
+import javax.inject.Provider;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -53,10 +55,6 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.spdx.rdfparser.license.AnyLicenseInfo;
-import org.spdx.rdfparser.license.DisjunctiveLicenseSet;
-import org.spdx.rdfparser.license.LicenseSet;
-import org.spdx.rdfparser.license.OrLaterOperator;
-import org.spdx.rdfparser.license.WithExceptionOperator;
 
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.nio.file.StandardOpenOption.CREATE;
@@ -102,13 +100,13 @@ public class GenerateLicenseResourcesMojo extends AbstractLicenseMojo {
         Stream.of("jar", "maven-plugin", "ejb", "war", "ear", "rar")
         .collect(toCollection(() -> new TreeSet<>(String.CASE_INSENSITIVE_ORDER)));
 
-    private static final Comparator<AnyLicenseInfo> LICENSE_ORDER =
+    private static final Comparator<LicenseExpression> LICENSE_ORDER =
         Comparator
-        .<AnyLicenseInfo>comparingInt(t -> LicenseUtilityMethods.countOf(t))
+        .<LicenseExpression>comparingInt(t -> t.countOf())
         .reversed()
-        .thenComparing(t -> toString(t))
-        .thenComparingInt(t -> (t instanceof OrLaterOperator) ? -1 : 1)
-        .thenComparingInt(t -> (t instanceof WithExceptionOperator) ? -1 : 1);
+        .thenComparing(LicenseExpression::toString)
+        .thenComparingInt(t -> (t instanceof LicenseExpression.OrLater) ? -1 : 1)
+        .thenComparingInt(t -> (t instanceof LicenseExpression.WithException) ? -1 : 1);
     private static final Comparator<Model> MODEL_ORDER =
         Comparator
         .<Model,String>comparing(t -> Objects.toString(t.getName(), EMPTY))
@@ -136,6 +134,8 @@ public class GenerateLicenseResourcesMojo extends AbstractLicenseMojo {
     @Inject private MavenProject project = null;
     @Inject private ArtifactLicenseCatalog catalog = null;
     @Inject private ArtifactModelCache cache = null;
+    @Inject private Provider<LicenseResolver> resolver = null;
+    @Inject private URLFetcher fetcher = null;
     @Inject private ExecutorServiceImpl executor = null;
 
     @Override
@@ -160,14 +160,41 @@ public class GenerateLicenseResourcesMojo extends AbstractLicenseMojo {
 
                         parent = parent.resolve(path);
                     }
+                    Set<String> scope = getScope();
+                    /*
+                     * Plan: Collect the candidate license URLs of every
+                     * artifact, canonicalize and de-duplicate, and fetch
+                     * them in parallel (under the URLFetcher adaptive
+                     * limits) before any per-artifact decision.
+                     */
+                    List<Callable<Set<String>>> candidates =
+                        project.getArtifacts().stream()
+                        .filter(t -> scope.contains(t.getScope()))
+                        .filter(t -> getSelection(t) == null)
+                        .<Callable<Set<String>>>map(t -> (() -> catalog.getCandidateURLs(t)))
+                        .collect(toList());
+                    TreeMap<String,String> plan = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+                    for (Future<Set<String>> future : executor.invokeAll(candidates)) {
+                        try {
+                            future.get().forEach(t -> plan.putIfAbsent(URLCanonicalizer.canonicalize(t), t));
+                        } catch (ExecutionException exception) {
+                            log.debug("{}", exception.getMessage(), exception);
+                        }
+                    }
+
+                    log.debug("Prefetching {} license URL(s)", plan.size());
+
+                    fetcher.invokeAll(plan.values().stream()
+                                       .<Callable<AnyLicenseInfo>>map(t -> (() -> resolver.get().prefetch(t)))
+                                       .collect(toList()));
                     /*
                      * Populate the caches.
                      */
-                    Set<String> scope = getScope();
-                    List<Callable<AnyLicenseInfo>> tasks =
+                    List<Callable<LicenseExpression>> tasks =
                         project.getArtifacts().stream()
                         .filter(t -> scope.contains(t.getScope()))
-                        .<Callable<AnyLicenseInfo>>map(t -> (() -> getLicense(t)))
+                        .<Callable<LicenseExpression>>map(t -> (() -> getLicense(t)))
                         .collect(toList());
 
                     executor.invokeAll(tasks);
@@ -191,7 +218,7 @@ public class GenerateLicenseResourcesMojo extends AbstractLicenseMojo {
                      *      Model[name, url] (same if name is not blank)
                      *      Artifacts (ArtifactModelCache.ORDER)
                      */
-                    TreeMap<AnyLicenseInfo,Map<Model,List<Tuple>>> report =
+                    TreeMap<LicenseExpression,Map<Model,List<Tuple>>> report =
                         tuples.stream()
                         .collect(groupingBy(Tuple::getLicense,
                                             () -> new TreeMap<>(LICENSE_ORDER),
@@ -199,7 +226,9 @@ public class GenerateLicenseResourcesMojo extends AbstractLicenseMojo {
                                                        () -> new TreeMap<>(MODEL_ORDER),
                                                        toList())));
 
-                    warnIfExtractedLicenseInfo(report.keySet().stream());
+                    warnIfExtractedLicenseInfo(tuples.stream()
+                                               .filter(t -> (! t.getLicense().isFullySpdxListed()))
+                                               .map(t -> getLicenseInfo(t.getArtifact())));
 
                     if ((! report.isEmpty()) || (! skipIfEmpty)) {
                         generateReport(report, parent);
@@ -249,17 +278,47 @@ public class GenerateLicenseResourcesMojo extends AbstractLicenseMojo {
         return scope;
     }
 
-    private AnyLicenseInfo getLicense(Artifact artifact) {
+    private Selection getSelection(Artifact artifact) {
+        Selection value = null;
+
+        if (selections != null) {
+            for (Selection selection : selections) {
+                if (selection.include(artifact)) {
+                    value = selection;
+                    break;
+                }
+            }
+        }
+
+        return value;
+    }
+
+    private LicenseExpression getLicense(Artifact artifact) {
+        LicenseExpression value = null;
+
+        if (value == null) {
+            Selection selection = getSelection(artifact);
+
+            if (selection != null) {
+                value = LicenseExpression.of(selection.getLicense());
+            }
+        }
+
+        if (value == null) {
+            value = catalog.getExpression(artifact);
+        }
+
+        return value;
+    }
+
+    private AnyLicenseInfo getLicenseInfo(Artifact artifact) {
         AnyLicenseInfo value = null;
 
         if (value == null) {
-            if (selections != null) {
-                for (Selection selection : selections) {
-                    if (selection.include(artifact)) {
-                        value = selection.getLicense();
-                        break;
-                    }
-                }
+            Selection selection = getSelection(artifact);
+
+            if (selection != null) {
+                value = selection.getLicense();
             }
         }
 
@@ -285,7 +344,7 @@ public class GenerateLicenseResourcesMojo extends AbstractLicenseMojo {
         Files.setLastModifiedTime(target, Files.getLastModifiedTime(source));
     }
 
-    private void generateReport(TreeMap<AnyLicenseInfo,Map<Model,List<Tuple>>> report, Path parent) throws Exception {
+    private void generateReport(TreeMap<LicenseExpression,Map<Model,List<Tuple>>> report, Path parent) throws Exception {
         Path target = parent.resolve(DEPENDENCIES);
 
         try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(target, CREATE, WRITE, TRUNCATE_EXISTING))) {
@@ -295,7 +354,7 @@ public class GenerateLicenseResourcesMojo extends AbstractLicenseMojo {
             out.println(target.getFileName() + " " + project.getArtifact());
             out.println(boundary);
 
-            for (Map.Entry<AnyLicenseInfo,Map<Model,List<Tuple>>> section : report.entrySet()) {
+            for (Map.Entry<LicenseExpression,Map<Model,List<Tuple>>> section : report.entrySet()) {
                 out.println(boundary);
                 out.println(toString(section.getKey()));
                 out.println(boundary);
@@ -327,18 +386,16 @@ public class GenerateLicenseResourcesMojo extends AbstractLicenseMojo {
         }
     }
 
-    private static String toString(AnyLicenseInfo license) {
+    private static String toString(LicenseExpression license) {
         String string = null;
 
-        if (license instanceof LicenseSet) {
-            AnyLicenseInfo[] members = ((LicenseSet) license).getMembers();
-
-            Arrays.sort(members, Comparator.comparing(Objects::toString));
+        if (license instanceof LicenseExpression.Compound) {
+            LicenseExpression.Compound compound = (LicenseExpression.Compound) license;
 
             string =
-                Stream.of(members)
+                compound.getMembers().stream()
                 .map(Objects::toString)
-                .collect(joining((license instanceof DisjunctiveLicenseSet) ? " OR " : " AND "));
+                .collect(joining(" " + compound.getOperator() + " "));
         } else {
             string = Objects.toString(license, EMPTY);
         }
@@ -348,7 +405,7 @@ public class GenerateLicenseResourcesMojo extends AbstractLicenseMojo {
 
     @AllArgsConstructor @Getter @ToString
     private class Tuple {
-        private AnyLicenseInfo license = null;
+        private LicenseExpression license = null;
         private Model model = null;
         private Artifact artifact = null;
     }
@@ -0,0 +1,443 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.jsoup.parser.Parser;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Streaming HTML license text extractor.  Tokenizes the document once
+ * (without building a DOM) into a single whitespace-collapsed text buffer,
+ * recording the offsets of the {@code content}, {@code main}, and
+ * {@code body} regions (by element name, class, or ID) and the
+ * {@code canonical} and {@code alternate} {@code <link/>}s.
+ * {@code <script/>}, {@code <style/>}, and {@code <template/>} content is
+ * skipped.  Extraction stops once a {@code content} or {@code main}
+ * region of at least {@link #LICENSE_SIZE} characters that reads like
+ * license text (e.g., "permission is hereby granted" or "without
+ * warranty") has been closed or the text reaches {@link #MAXIMUM_SIZE}
+ * characters.
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@NoArgsConstructor @ToString
+public class HTMLTextExtractor {
+
+    /**
+     * Minimum region size (characters) to stop extraction.
+     */
+    public static final int LICENSE_SIZE = 512;
+
+    /**
+     * Maximum text size (characters).
+     */
+    public static final int MAXIMUM_SIZE = 1024 * 1024;
+
+    private static final int MAXIMUM_TAG_SIZE = 64 * 1024;
+
+    private static final Set<String> VOID =
+        new LinkedHashSet<>(Arrays.asList("area", "base", "br", "col", "embed", "hr", "img", "input",
+                                          "link", "meta", "param", "source", "track", "wbr"));
+    private static final Set<String> RAW =
+        new LinkedHashSet<>(Arrays.asList("script", "style", "template"));
+    private static final Set<String> BLOCK =
+        new LinkedHashSet<>(Arrays.asList("address", "article", "aside", "blockquote", "br",
+                                          "dd", "div", "dl", "dt", "footer", "form",
+                                          "h1", "h2", "h3", "h4", "h5", "h6", "header", "hr",
+                                          "li", "main", "nav", "ol", "p", "pre", "section",
+                                          "table", "td", "th", "tr", "ul"));
+
+    private static final Pattern LICENSE =
+        Pattern.compile("(?i)(permission is hereby granted|redistribution and use|licensed under"
+                        + "|terms and conditions|without warrant|warranties|this license|the license)");
+    private static final Pattern ATTRIBUTE =
+        Pattern.compile("([^\\p{Space}=/]+)(?:\\p{Space}*=\\p{Space}*(?:\"([^\"]*)\"|'([^']*)'|([^\\p{Space}\"'>]+)))?");
+
+    /**
+     * Method to extract the text regions and links from an HTML document.
+     *
+     * @param   reader          The {@link Reader} (not closed by this
+     *                          method).
+     * @param   url             The document {@link java.net.URL} (for
+     *                          resolving relative links).
+     *
+     * @return  The {@link Extract}.
+     *
+     * @throws  IOException     If the document cannot be read.
+     */
+    public Extract extract(Reader reader, String url) throws IOException {
+        return new Tokenizer(new BufferedReader(reader), url).run();
+    }
+
+    /**
+     * Region kind (in order of preference).
+     */
+    public enum Kind { CONTENT, MAIN, BODY }
+
+    /**
+     * {@link HTMLTextExtractor} result.
+     *
+     * {@bean.info}
+     */
+    @AllArgsConstructor @Getter @ToString
+    public static class Extract {
+        private final List<String> canonical;
+        private final Map<String,String> alternates;
+        private final List<String> regions;
+        private final String text;
+    }
+
+    private static class Tokenizer {
+        private final BufferedReader in;
+        private final String url;
+        private final StringBuilder buffer = new StringBuilder();
+        private final StringBuilder run = new StringBuilder();
+        private final Deque<Frame> stack = new ArrayDeque<>();
+        private final List<Block> blocks = new ArrayList<>();
+        private final List<String> canonical = new ArrayList<>();
+        private final Map<String,String> alternates = new TreeMap<>();
+        private boolean done = false;
+
+        public Tokenizer(BufferedReader in, String url) {
+            this.in = in;
+            this.url = url;
+        }
+
+        public Extract run() throws IOException {
+            int character = -1;
+
+            while ((! done) && (character = in.read()) >= 0) {
+                if (character == '<') {
+                    text();
+                    tag();
+                } else {
+                    run.append((char) character);
+
+                    if (run.length() >= 8 * 1024 && Character.isWhitespace(character)) {
+                        text();
+                    }
+                }
+            }
+
+            text();
+
+            while (! stack.isEmpty()) {
+                close(stack.pop());
+            }
+
+            List<String> regions = new ArrayList<>();
+
+            for (Kind kind : Kind.values()) {
+                for (Block block : blocks) {
+                    if (block.kind == kind) {
+                        String text = buffer.substring(block.start, block.end).trim();
+
+                        if (isNotBlank(text) && (! regions.contains(text))) {
+                            regions.add(text);
+                        }
+                    }
+                }
+            }
+
+            return new Extract(canonical, alternates, regions, buffer.toString().trim());
+        }
+
+        private void text() {
+            if (run.length() > 0) {
+                String text = Parser.unescapeEntities(run.toString(), false);
+
+                run.setLength(0);
+
+                for (int i = 0, n = text.length(); i < n; i += 1) {
+                    char character = text.charAt(i);
+
+                    if (Character.isWhitespace(character) || Character.isSpaceChar(character)) {
+                        space();
+                    } else {
+                        buffer.append(character);
+                    }
+                }
+
+                if (buffer.length() >= MAXIMUM_SIZE) {
+                    done = true;
+                }
+            }
+        }
+
+        private void space() {
+            int length = buffer.length();
+
+            if (length > 0 && buffer.charAt(length - 1) != ' ') {
+                buffer.append(' ');
+            }
+        }
+
+        private void tag() throws IOException {
+            int character = in.read();
+
+            if (character == '!') {
+                in.mark(2);
+
+                if (in.read() == '-' && in.read() == '-') {
+                    skip("-->");
+                } else {
+                    in.reset();
+                    skip(">");
+                }
+            } else if (character == '?') {
+                skip(">");
+            } else if (character == '/') {
+                String name = name(read());
+
+                if (BLOCK.contains(name)) {
+                    space();
+                }
+
+                end(name);
+            } else if (character >= 0 && Character.isLetter(character)) {
+                String tag = ((char) character) + read();
+                boolean closed = tag.endsWith("/");
+                String name = name(tag);
+                Map<String,String> attributes = attributes(tag.substring(Math.min(name.length(), tag.length())));
+
+                if (BLOCK.contains(name)) {
+                    space();
+                }
+
+                if (RAW.contains(name)) {
+                    if (! closed) {
+                        skip("</" + name);
+                        skip(">");
+                    }
+                } else {
+                    if (name.equals("link")) {
+                        link(attributes);
+                    }
+
+                    if (! (closed || VOID.contains(name))) {
+                        stack.push(new Frame(name, kind(name, attributes), buffer.length()));
+                    }
+                }
+            } else {
+                run.append('<');
+
+                if (character >= 0) {
+                    run.append((char) character);
+                }
+            }
+        }
+
+        private void end(String name) {
+            boolean found = false;
+
+            for (Frame frame : stack) {
+                if (frame.name.equals(name)) {
+                    found = true;
+                    break;
+                }
+            }
+
+            while (found && (! stack.isEmpty())) {
+                Frame frame = stack.pop();
+
+                close(frame);
+
+                if (frame.name.equals(name)) {
+                    break;
+                }
+            }
+        }
+
+        private void close(Frame frame) {
+            if (frame.kind != null) {
+                Block block = new Block(frame.kind, frame.start, buffer.length());
+
+                blocks.add(block);
+
+                if (block.kind != Kind.BODY && (block.end - block.start) >= LICENSE_SIZE) {
+                    done |= LICENSE.matcher(buffer).region(block.start, block.end).find();
+                }
+            }
+        }
+
+        private void link(Map<String,String> attributes) {
+            String rel = attributes.getOrDefault("rel", "").toLowerCase(Locale.ROOT);
+            String href = attributes.get("href");
+
+            if (isNotBlank(href)) {
+                href = resolve(Parser.unescapeEntities(href.trim(), true));
+
+                if (href != null) {
+                    if (rel.matches("(^|.*\\p{Space})canonical(\\p{Space}.*|$)")) {
+                        canonical.add(href);
+                    } else if (rel.matches("(^|.*\\p{Space})alternate(\\p{Space}.*|$)")) {
+                        alternates.putIfAbsent(href, attributes.getOrDefault("type", "").trim());
+                    }
+                }
+            }
+        }
+
+        private String resolve(String href) {
+            String resolved = null;
+
+            try {
+                resolved = (url != null) ? URI.create(url).resolve(href).toASCIIString() : href;
+            } catch (Exception exception) {
+            }
+
+            return resolved;
+        }
+
+        private Kind kind(String name, Map<String,String> attributes) {
+            Kind kind = null;
+            Set<String> tokens = new LinkedHashSet<>();
+
+            tokens.add(name);
+            tokens.add("#" + attributes.getOrDefault("id", "").trim().toLowerCase(Locale.ROOT));
+
+            for (String token : attributes.getOrDefault("class", "").toLowerCase(Locale.ROOT).split("[\\p{Space}]+")) {
+                tokens.add("." + token);
+            }
+
+            for (Kind value : Kind.values()) {
+                String string = value.name().toLowerCase(Locale.ROOT);
+
+                if (tokens.contains(string) || tokens.contains("#" + string) || tokens.contains("." + string)) {
+                    kind = value;
+                    break;
+                }
+            }
+
+            return kind;
+        }
+
+        private String read() throws IOException {
+            StringBuilder tag = new StringBuilder();
+            char quote = 0;
+            int character = -1;
+
+            while ((character = in.read()) >= 0) {
+                if (quote != 0) {
+                    if (character == quote) {
+                        quote = 0;
+                    }
+                } else if (character == '"' || character == '\'') {
+                    quote = (char) character;
+                } else if (character == '>') {
+                    break;
+                }
+
+                if (tag.length() < MAXIMUM_TAG_SIZE) {
+                    tag.append((char) character);
+                }
+            }
+
+            return tag.toString().trim();
+        }
+
+        private String name(String tag) {
+            int end = 0;
+
+            while (end < tag.length()
+                   && (! Character.isWhitespace(tag.charAt(end)))
+                   && tag.charAt(end) != '/') {
+                end += 1;
+            }
+
+            return tag.substring(0, end).toLowerCase(Locale.ROOT);
+        }
+
+        private Map<String,String> attributes(String string) {
+            Map<String,String> map = new TreeMap<>();
+            Matcher matcher = ATTRIBUTE.matcher(string);
+
+            while (matcher.find()) {
+                String value = matcher.group(2);
+
+                if (value == null) {
+                    value = matcher.group(3);
+                }
+
+                if (value == null) {
+                    value = matcher.group(4);
+                }
+
+                map.putIfAbsent(matcher.group(1).toLowerCase(Locale.ROOT), (value != null) ? value : "");
+            }
+
+            return map;
+        }
+
+        /*
+         * Skip to (and past) the terminator (case-insensitive).
+         */
+        private void skip(String terminator) throws IOException {
+            String target = terminator.toLowerCase(Locale.ROOT);
+            StringBuilder window = new StringBuilder();
+            int character = -1;
+
+            while ((character = in.read()) >= 0) {
+                window.append(Character.toLowerCase((char) character));
+
+                if (window.length() > target.length()) {
+                    window.deleteCharAt(0);
+                }
+
+                if (window.length() == target.length() && window.toString().equals(target)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    @AllArgsConstructor @ToString
+    private static class Frame {
+        private final String name;
+        private final Kind kind;
+        private final int start;
+    }
+
+    @AllArgsConstructor @ToString
+    private static class Block {
+        private final Kind kind;
+        private final int start;
+        private final int end;
+    }
+}
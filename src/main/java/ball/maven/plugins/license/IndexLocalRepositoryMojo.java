@@ -0,0 +1,275 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import javax.inject.Inject;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.spdx.rdfparser.license.AnyLicenseInfo;
+
+import static ball.maven.plugins.license.LicenseUtilityMethods.isEmpty;
+import static ball.maven.plugins.license.LicenseUtilityMethods.isFullySpdxListed;
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+
+/**
+ * {@link org.apache.maven.plugin.Mojo} to crawl the local repository and
+ * resolve (and persist) the license of every artifact found.  Subsequent
+ * {@link GenerateLicenseResourcesMojo} executions are then
+ * {@link ArtifactLicenseCatalog} look-ups.  The crawl is resumable and
+ * incremental: Only artifacts whose POM or archive changed since the
+ * last run (or whose license could not be resolved) are re-indexed.  The
+ * directory tree is walked on the calling thread and the (blocking)
+ * look-ups run on a fixed pool of {@code license.index.parallelism}
+ * threads.
+ *
+ * {@injected.fields}
+ *
+ * {@maven.plugin.fields}
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@Mojo(name = "index-local-repository", configurator = "license-mojo-component-configurator",
+      requiresProject = false, threadSafe = true)
+@NoArgsConstructor @ToString @Slf4j
+public class IndexLocalRepositoryMojo extends AbstractLicenseMojo {
+    private static final String INDEX = "artifact-license-index.xml";
+
+    private static final Predicate<String> FILE =
+        Pattern.compile("(?i)^.*[.](aar|asc|jar|json|lastUpdated|md5|properties|repositories|sha1|sha256|sha512|war|xml|zip)$")
+        .asPredicate();
+
+    private static final long PROGRESS_PERIOD = TimeUnit.SECONDS.toMillis(15);
+
+    @Parameter(defaultValue = "0", property = "license.index.parallelism")
+    private int parallelism = 0;
+
+    @Parameter(defaultValue = "false", property = "license.index.force")
+    private boolean force = false;
+
+    @Inject private MavenSession session = null;
+    @Inject private ArtifactLicenseCatalog catalog = null;
+
+    private final Map<ArtifactKey,String> index = new ConcurrentSkipListMap<>();
+    private final AtomicInteger found = new AtomicInteger();
+    private final AtomicInteger indexed = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger unresolved = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicLong reported = new AtomicLong();
+    private File root = null;
+    private File file = null;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (! isSkip()) {
+            root = new File(session.getLocalRepository().getBasedir()).getAbsoluteFile();
+            file = new File(root, INDEX);
+
+            load();
+
+            int size = (parallelism > 0) ? parallelism : Runtime.getRuntime().availableProcessors();
+            /*
+             * Bounded queue: The crawling thread indexes a POM itself
+             * when the pool is saturated.
+             */
+            ThreadPoolExecutor pool =
+                new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                                       new ArrayBlockingQueue<Runnable>(4 * size),
+                                       new ThreadPoolExecutor.CallerRunsPolicy());
+
+            log.info("Indexing {} ({} threads)", root, size);
+            /*
+             * The index is written once at the end of the crawl (or by the
+             * shutdown hook if the build is interrupted).
+             */
+            Thread hook = new Thread(() -> flush());
+
+            Runtime.getRuntime().addShutdownHook(hook);
+
+            try {
+                reported.set(System.currentTimeMillis());
+                crawl(pool, root);
+                pool.shutdown();
+
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (Throwable throwable) {
+                log.error("{}", throwable.getMessage(), throwable);
+                throw new MojoExecutionException(throwable.getMessage(), throwable);
+            } finally {
+                pool.shutdownNow();
+                flush();
+                progress();
+
+                try {
+                    Runtime.getRuntime().removeShutdownHook(hook);
+                } catch (IllegalStateException exception) {
+                }
+            }
+        } else {
+            log.info("Skipping local repository indexing");
+        }
+    }
+
+    private void load() {
+        if (file.exists() && (! force)) {
+            Properties properties = new Properties();
+
+            try (FileInputStream in = new FileInputStream(file)) {
+                properties.loadFromXML(in);
+            } catch (IOException exception) {
+                log.warn("Cannot read {}", file);
+            }
+
+            for (String key : properties.stringPropertyNames()) {
+                try {
+                    index.put(ArtifactKey.parse(key), properties.getProperty(key));
+                } catch (Exception exception) {
+                    log.debug("{}: {}", key, exception.getMessage(), exception);
+                }
+            }
+        }
+    }
+
+    private synchronized void flush() {
+        catalog.flush();
+
+        Properties properties = new Properties();
+
+        index.forEach((k, v) -> properties.setProperty(k.toString(), v));
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            properties.storeToXML(out, file.getName());
+        } catch (IOException exception) {
+            log.warn("Cannot write {}", file);
+        }
+    }
+
+    private void progress() {
+        log.info("{} artifact(s) found: {} indexed, {} up-to-date, {} unresolved, {} failed",
+                 found.get(), indexed.get(), skipped.get(), unresolved.get(), failed.get());
+    }
+
+    private void index(File pom) {
+        File version = pom.getParentFile();
+        File artifactId = version.getParentFile();
+        File groupId = (artifactId != null) ? artifactId.getParentFile() : null;
+        String path =
+            (groupId != null) ? root.toURI().relativize(groupId.toURI()).getPath() : EMPTY;
+
+        if (groupId != null
+            && pom.getName().equals(artifactId.getName() + "-" + version.getName() + ".pom")
+            && (! path.isEmpty()) && (! path.startsWith("/"))) {
+            found.incrementAndGet();
+
+            String group = path.replaceAll("/+$", EMPTY).replace('/', '.');
+            ArtifactKey key = new ArtifactKey(group, artifactId.getName(), version.getName());
+            File jar = new File(version, artifactId.getName() + "-" + version.getName() + ".jar");
+            String stamp = stampOf(pom) + "," + stampOf(jar);
+            String previous = index.get(key);
+
+            if (! Objects.equals(stamp, previous)) {
+                try {
+                    Artifact artifact =
+                        new DefaultArtifact(group, artifactId.getName(), version.getName(),
+                                            null, "jar", EMPTY, new DefaultArtifactHandler("jar"));
+
+                    artifact.setFile(jar.isFile() ? jar : pom);
+
+                    if (previous != null || force) {
+                        catalog.remove(key);
+                    }
+
+                    AnyLicenseInfo license = catalog.get(artifact);
+                    /*
+                     * Only resolved (non-empty and fully SPDX listed)
+                     * artifacts are stamped so unresolved artifacts are
+                     * retried on the next run.
+                     */
+                    if (license != null && (! isEmpty(license)) && isFullySpdxListed(license)) {
+                        index.put(key, stamp);
+                        indexed.incrementAndGet();
+                    } else {
+                        index.remove(key);
+                        unresolved.incrementAndGet();
+                    }
+                } catch (Exception exception) {
+                    failed.incrementAndGet();
+                    log.debug("{}: {}", key, exception.getMessage(), exception);
+                }
+            } else {
+                skipped.incrementAndGet();
+            }
+
+            long now = System.currentTimeMillis();
+            long then = reported.get();
+
+            if (now - then > PROGRESS_PERIOD && reported.compareAndSet(then, now)) {
+                progress();
+            }
+        }
+    }
+
+    private String stampOf(File file) {
+        return file.isFile() ? (file.lastModified() + ":" + file.length()) : EMPTY;
+    }
+
+    private void crawl(ThreadPoolExecutor pool, File directory) {
+        File[] files = directory.listFiles();
+
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+
+                if (name.startsWith(".")) {
+                    continue;
+                }
+
+                if (name.endsWith(".pom")) {
+                    pool.execute(() -> index(file));
+                } else if ((! FILE.test(name)) && file.isDirectory()) {
+                    crawl(pool, file);
+                }
+            }
+        }
+    }
+}
@@ -24,7 +24,6 @@ import lombok.ToString;
 import org.codehaus.plexus.component.configurator.ComponentConfigurationException;
 import org.codehaus.plexus.component.configurator.converters.basic.AbstractBasicConverter;
 import org.spdx.rdfparser.license.AnyLicenseInfo;
-import org.spdx.rdfparser.license.LicenseInfoFactory;
 
 /**
  * {@link AnyLicenseInfo}
@@ -46,7 +45,7 @@ public class LicenseConverter extends AbstractBasicConverter {
         Object object = null;
 
         try {
-            object = TYPE.cast(LicenseInfoFactory.parseSPDXLicenseString(string));
+            object = TYPE.cast(LicenseExpressionCache.parse(string));
         } catch (Exception exception) {
             String message = "Unable to convert '" + string + "' to " + TYPE.getName();
 
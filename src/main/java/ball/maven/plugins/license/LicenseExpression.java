@@ -0,0 +1,633 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntFunction;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.spdx.rdfparser.license.AnyLicenseInfo;
+import org.spdx.rdfparser.license.ConjunctiveLicenseSet;
+import org.spdx.rdfparser.license.DisjunctiveLicenseSet;
+import org.spdx.rdfparser.license.LicenseSet;
+import org.spdx.rdfparser.license.OrLaterOperator;
+import org.spdx.rdfparser.license.SimpleLicensingInfo;
+import org.spdx.rdfparser.license.WithExceptionOperator;
+import org.spdx.spdxspreadsheet.InvalidLicenseStringException;
+
+/**
+ * Immutable SPDX license expression.  Expressions are parsed with
+ * {@link #parse(String)} without materializing spdx-tools licenses: An
+ * identifier is SPDX listed if and only if it is one of the SPDX listed
+ * license IDs {@link LicenseMap} registers (any other ID, including
+ * {@code LicenseRef-} and {@code DocumentRef-} references, is unlisted).
+ * Compound ({@code AND} and {@code OR}) expressions are flattened,
+ * de-duplicated, and their members sorted so that
+ * {@link #toString()} is independent of member order.  The empty
+ * compound expression {@code ()} ("no license") is not SPDX listed.
+ *
+ * Every node is interned and assigned an {@code int}
+ * {@link #getCode() code}.  SPDX listed identifiers have stable codes (their
+ * position in the sorted list of IDs), are created with the official
+ * ID casing, and are never released.  Any other node is interned weakly
+ * (keyed by its case-insensitive ID, by operator and operand, or, for
+ * compound expressions, by operator and the {@link BitSet} of member
+ * codes) and its code is reused once the node is collected, so codes (and
+ * {@link BitSet}s) are bounded by the listed licenses and live nodes.
+ * Equality is therefore identity, {@link #hashCode()} is the code,
+ * {@link Compound#contains(LicenseExpression)} is a bit test, and
+ * {@link #countOf()} and {@link #isFullySpdxListed()} are computed once
+ * at construction.  {@link #of(AnyLicenseInfo)} and
+ * {@link #toLicenseInfo()} convert from and to the spdx-tools model.
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+public abstract class LicenseExpression {
+    private static final ReferenceQueue<LicenseExpression> QUEUE = new ReferenceQueue<>();
+    private static final BitSet CODES = new BitSet();
+
+    @Getter private final int code;
+    private final String string;
+    private final int count;
+    private final boolean listed;
+
+    private LicenseExpression(int code, String string, int count, boolean listed) {
+        this.code = code;
+        this.string = Objects.requireNonNull(string);
+        this.count = count;
+        this.listed = listed;
+    }
+
+    /**
+     * Method to get the children of this node.
+     *
+     * @return  The {@link List} of child {@link LicenseExpression}s
+     *          (empty for a leaf).
+     */
+    public abstract List<LicenseExpression> getChildren();
+
+    /**
+     * Returns the count of licenses represented by this expression: The
+     * number of members of a compound expression or {@code 1}.
+     *
+     * @return  The license count.
+     */
+    public int countOf() { return count; }
+
+    /**
+     * Method to test if this expression is fully specified by SPDX
+     * license(s).
+     *
+     * @return  {@code true} if fully specified; {@code false} otherwise.
+     */
+    public boolean isFullySpdxListed() { return listed; }
+
+    /**
+     * Method to convert this expression to an {@link AnyLicenseInfo}.
+     *
+     * @return  The {@link AnyLicenseInfo}.
+     *
+     * @throws  InvalidLicenseStringException
+     *                          If the expression cannot be parsed by
+     *                          spdx-tools.
+     */
+    public AnyLicenseInfo toLicenseInfo() throws InvalidLicenseStringException {
+        return LicenseExpressionCache.parse(toString());
+    }
+
+    @Override
+    public boolean equals(Object object) { return (object == this); }
+
+    @Override
+    public int hashCode() { return code; }
+
+    @Override
+    public String toString() { return string; }
+
+    /**
+     * Static method to parse an SPDX license expression.
+     *
+     * @param   string          The SPDX license expression.
+     *
+     * @return  The {@link LicenseExpression}.
+     *
+     * @throws  IllegalArgumentException
+     *                          If {@code string} cannot be parsed.
+     */
+    public static LicenseExpression parse(String string) {
+        Parser parser = new Parser(string);
+        LicenseExpression expression = parser.disjunction();
+
+        if (parser.peek() != null) {
+            throw new IllegalArgumentException("Unexpected '" + parser.peek() + "' in '" + string + "'");
+        }
+
+        return expression;
+    }
+
+    /**
+     * Static method to convert an {@link AnyLicenseInfo} to a
+     * {@link LicenseExpression}.  Leaves are converted to
+     * {@link Identifier}s by ID.
+     *
+     * @param   license         The {@link AnyLicenseInfo}.
+     *
+     * @return  The {@link LicenseExpression} or {@code null} if
+     *          {@code license} is {@code null}.
+     */
+    public static LicenseExpression of(AnyLicenseInfo license) {
+        LicenseExpression expression = null;
+
+        if (license instanceof LicenseSet) {
+            List<LicenseExpression> members = new ArrayList<>();
+
+            for (AnyLicenseInfo member : ((LicenseSet) license).getMembers()) {
+                members.add(of(member));
+            }
+
+            expression =
+                Compound.of((license instanceof ConjunctiveLicenseSet) ? Operator.AND : Operator.OR, members);
+        } else if (license instanceof OrLaterOperator) {
+            expression = OrLater.of(of(((OrLaterOperator) license).getLicense()));
+        } else if (license instanceof WithExceptionOperator) {
+            WithExceptionOperator operator = (WithExceptionOperator) license;
+
+            expression =
+                WithException.of(of(operator.getLicense()), operator.getException().getLicenseExceptionId());
+        } else if (license instanceof SimpleLicensingInfo) {
+            expression = Identifier.of(((SimpleLicensingInfo) license).getLicenseId());
+        } else if (license != null) {
+            expression = Identifier.of(license.toString());
+        }
+
+        return expression;
+    }
+
+    /*
+     * Codes below Listed.size() are reserved for the listed identifiers.
+     * A code is allocated only when a new node is published and is
+     * released when the node is collected.  A node strongly references its
+     * operands so an operand's code cannot be reused while a node keyed by
+     * it is live; a stale entry (cleared reference) is simply replaced.
+     */
+    private static synchronized <K> LicenseExpression intern(Map<K,Interned<K>> table, K key,
+                                                             IntFunction<LicenseExpression> constructor) {
+        expunge();
+
+        Interned<K> interned = table.get(key);
+        LicenseExpression expression = (interned != null) ? interned.get() : null;
+
+        if (expression == null) {
+            int code = CODES.nextClearBit(Listed.size());
+
+            expression = constructor.apply(code);
+            CODES.set(code);
+            table.put(key, new Interned<>(expression, table, key));
+        }
+
+        return expression;
+    }
+
+    private static void expunge() {
+        Reference<? extends LicenseExpression> reference = null;
+
+        while ((reference = QUEUE.poll()) != null) {
+            Interned<?> interned = (Interned<?>) reference;
+
+            interned.table.remove(interned.key, interned);
+            CODES.clear(interned.code);
+        }
+    }
+
+    private static class Interned<K> extends WeakReference<LicenseExpression> {
+        private final Map<K,Interned<K>> table;
+        private final K key;
+        private final int code;
+
+        public Interned(LicenseExpression expression, Map<K,Interned<K>> table, K key) {
+            super(expression, QUEUE);
+
+            this.table = table;
+            this.key = key;
+            this.code = expression.getCode();
+        }
+    }
+
+    /*
+     * SPDX listed identifiers (the same list as LicenseMap) by
+     * case-insensitive ID; loaded on first use.
+     */
+    private static class Listed {
+        private static final Map<String,Identifier> MAP = new HashMap<>();
+
+        static {
+            for (String id : LicenseMap.getSpdxListedLicenseIds()) {
+                String key = id.toLowerCase(Locale.ROOT);
+
+                if (! MAP.containsKey(key)) {
+                    MAP.put(key, new Identifier(MAP.size(), id, true));
+                }
+            }
+        }
+
+        public static int size() { return MAP.size(); }
+
+        public static Identifier get(String id) { return MAP.get(id.toLowerCase(Locale.ROOT)); }
+    }
+
+    /**
+     * SPDX license identifier (leaf).
+     *
+     * {@bean.info}
+     */
+    @Getter
+    public static class Identifier extends LicenseExpression {
+        private static final Map<String,Interned<String>> TABLE = new HashMap<>();
+
+        private final String id;
+
+        private Identifier(int code, String id, boolean listed) {
+            super(code, id, 1, listed);
+
+            this.id = id;
+        }
+
+        @Override
+        public List<LicenseExpression> getChildren() { return Collections.emptyList(); }
+
+        private static LicenseExpression of(String id) {
+            LicenseExpression expression = Listed.get(id);
+
+            if (expression == null) {
+                expression = intern(TABLE, id.toLowerCase(Locale.ROOT), t -> new Identifier(t, id, false));
+            }
+
+            return expression;
+        }
+    }
+
+    /**
+     * {@code +} ("or later") operator.
+     *
+     * {@bean.info}
+     */
+    @Getter
+    public static class OrLater extends LicenseExpression {
+        private static final Map<Integer,Interned<Integer>> TABLE = new HashMap<>();
+
+        private final LicenseExpression license;
+
+        private OrLater(int code, LicenseExpression license) {
+            super(code, license + "+", 1, license.isFullySpdxListed());
+
+            this.license = license;
+        }
+
+        @Override
+        public List<LicenseExpression> getChildren() { return Collections.singletonList(license); }
+
+        private static LicenseExpression of(LicenseExpression license) {
+            return intern(TABLE, license.getCode(), t -> new OrLater(t, license));
+        }
+    }
+
+    /**
+     * {@code WITH} (exception) operator.
+     *
+     * {@bean.info}
+     */
+    @Getter
+    public static class WithException extends LicenseExpression {
+        private static final Map<SimpleImmutableEntry<Integer,String>,Interned<SimpleImmutableEntry<Integer,String>>> TABLE =
+            new HashMap<>();
+
+        private final LicenseExpression license;
+        private final String exception;
+
+        private WithException(int code, LicenseExpression license, String exception) {
+            super(code, license + " WITH " + exception, 1, license.isFullySpdxListed());
+
+            this.license = license;
+            this.exception = exception;
+        }
+
+        @Override
+        public List<LicenseExpression> getChildren() { return Collections.singletonList(license); }
+
+        private static LicenseExpression of(LicenseExpression license, String exception) {
+            return intern(TABLE,
+                          new SimpleImmutableEntry<>(license.getCode(), exception.toLowerCase(Locale.ROOT)),
+                          t -> new WithException(t, license, exception));
+        }
+    }
+
+    /**
+     * Compound operator.
+     */
+    public enum Operator { AND, OR }
+
+    /**
+     * Compound ({@code AND} or {@code OR}) expression.
+     *
+     * {@bean.info}
+     */
+    @Getter
+    public static class Compound extends LicenseExpression {
+        private static final Comparator<LicenseExpression> ORDER =
+            Comparator
+            .<LicenseExpression,String>comparing(Objects::toString, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingInt(LicenseExpression::getCode);
+        private static final Map<SimpleImmutableEntry<Operator,BitSet>,Interned<SimpleImmutableEntry<Operator,BitSet>>> TABLE =
+            new HashMap<>();
+
+        private final Operator operator;
+        private final List<LicenseExpression> members;
+        @Getter(AccessLevel.NONE)
+        private final BitSet bits;
+
+        private Compound(int code, Operator operator, List<LicenseExpression> members, BitSet bits) {
+            super(code, toString(operator, members), countOf(members), isFullySpdxListed(members));
+
+            this.operator = operator;
+            this.members = members;
+            this.bits = bits;
+        }
+
+        @Override
+        public List<LicenseExpression> getChildren() { return members; }
+
+        /*
+         * spdx-tools cannot parse the empty expression "()".
+         */
+        @Override
+        public AnyLicenseInfo toLicenseInfo() throws InvalidLicenseStringException {
+            AnyLicenseInfo license = null;
+
+            if (members.isEmpty()) {
+                license = new DisjunctiveLicenseSet(new AnyLicenseInfo[] { });
+            } else {
+                license = super.toLicenseInfo();
+            }
+
+            return license;
+        }
+
+        /**
+         * Method to test if an expression is a member of this compound
+         * expression.
+         *
+         * @param   expression      The {@link LicenseExpression}.
+         *
+         * @return  {@code true} if {@code expression} is a member;
+         *          {@code false} otherwise.
+         */
+        public boolean contains(LicenseExpression expression) {
+            return (expression != null && bits.get(expression.getCode()));
+        }
+
+        private static LicenseExpression of(Operator operator, List<LicenseExpression> list) {
+            List<LicenseExpression> members = new ArrayList<>();
+            BitSet bits = new BitSet();
+
+            for (LicenseExpression member : list) {
+                List<LicenseExpression> children = Collections.singletonList(member);
+
+                if (member instanceof Compound && ((Compound) member).getOperator() == operator) {
+                    children = ((Compound) member).getMembers();
+                }
+
+                for (LicenseExpression child : children) {
+                    if (! bits.get(child.getCode())) {
+                        bits.set(child.getCode());
+                        members.add(child);
+                    }
+                }
+            }
+
+            members.sort(ORDER);
+
+            LicenseExpression expression = null;
+
+            if (members.size() == 1) {
+                expression = members.get(0);
+            } else if (members.isEmpty()) {
+                /*
+                 * The empty ("no license") expression is always OR so
+                 * "()" has a single node.
+                 */
+                expression =
+                    intern(TABLE, new SimpleImmutableEntry<>(Operator.OR, bits),
+                           t -> new Compound(t, Operator.OR, Collections.emptyList(), bits));
+            } else {
+                List<LicenseExpression> unmodifiable = Collections.unmodifiableList(members);
+
+                expression =
+                    intern(TABLE, new SimpleImmutableEntry<>(operator, bits),
+                           t -> new Compound(t, operator, unmodifiable, bits));
+            }
+
+            return expression;
+        }
+
+        private static int countOf(List<LicenseExpression> members) {
+            int count = 0;
+
+            for (LicenseExpression member : members) {
+                count += member.countOf();
+            }
+
+            return count;
+        }
+
+        /*
+         * An empty compound expression ("no license") is not listed
+         * (consistent with LicenseUtilityMethods.isFullySpdxListed()).
+         */
+        private static boolean isFullySpdxListed(List<LicenseExpression> members) {
+            boolean listed = (! members.isEmpty());
+
+            for (LicenseExpression member : members) {
+                listed &= member.isFullySpdxListed();
+            }
+
+            return listed;
+        }
+
+        private static String toString(Operator operator, List<LicenseExpression> members) {
+            StringBuilder buffer = new StringBuilder("(");
+
+            for (LicenseExpression member : members) {
+                if (buffer.length() > 1) {
+                    buffer.append(" ").append(operator.name()).append(" ");
+                }
+
+                buffer.append(member);
+            }
+
+            return buffer.append(")").toString();
+        }
+    }
+
+    /*
+     * Recursive descent: OR binds loosest, then AND, then WITH, then "+".
+     * Operators are case-insensitive.
+     */
+    private static class Parser {
+        private final String string;
+        private final List<String> tokens = new ArrayList<>();
+        private int index = 0;
+
+        public Parser(String string) {
+            this.string = Objects.requireNonNull(string);
+
+            int length = string.length();
+            int i = 0;
+
+            while (i < length) {
+                char character = string.charAt(i);
+
+                if (Character.isWhitespace(character)) {
+                    i += 1;
+                } else if (character == '(' || character == ')' || character == '+') {
+                    tokens.add(String.valueOf(character));
+                    i += 1;
+                } else {
+                    int start = i;
+
+                    while (i < length && isIdentifierPart(string.charAt(i))) {
+                        i += 1;
+                    }
+
+                    if (i == start) {
+                        throw new IllegalArgumentException("Unexpected '" + character + "' in '" + string + "'");
+                    }
+
+                    tokens.add(string.substring(start, i));
+                }
+            }
+        }
+
+        public String peek() { return (index < tokens.size()) ? tokens.get(index) : null; }
+
+        public LicenseExpression disjunction() {
+            List<LicenseExpression> list = new ArrayList<>();
+
+            list.add(conjunction());
+
+            while (accept(Operator.OR.name())) {
+                list.add(conjunction());
+            }
+
+            return (list.size() == 1) ? list.get(0) : Compound.of(Operator.OR, list);
+        }
+
+        private LicenseExpression conjunction() {
+            List<LicenseExpression> list = new ArrayList<>();
+
+            list.add(exception());
+
+            while (accept(Operator.AND.name())) {
+                list.add(exception());
+            }
+
+            return (list.size() == 1) ? list.get(0) : Compound.of(Operator.AND, list);
+        }
+
+        private LicenseExpression exception() {
+            LicenseExpression expression = primary();
+
+            if (accept("WITH")) {
+                expression = WithException.of(expression, identifier());
+            }
+
+            return expression;
+        }
+
+        private LicenseExpression primary() {
+            LicenseExpression expression = null;
+
+            if (accept("(")) {
+                if (accept(")")) {
+                    expression = Compound.of(Operator.OR, Collections.emptyList());
+                } else {
+                    expression = disjunction();
+
+                    if (! accept(")")) {
+                        throw new IllegalArgumentException("Missing ')' in '" + string + "'");
+                    }
+                }
+            } else {
+                String id = identifier();
+
+                expression = Identifier.of(id);
+
+                if (accept("+")) {
+                    expression = OrLater.of(expression);
+                }
+            }
+
+            return expression;
+        }
+
+        private String identifier() {
+            String token = peek();
+
+            if (token == null || (! isIdentifierPart(token.charAt(0))) || isOperator(token)) {
+                throw new IllegalArgumentException("Expected identifier in '" + string + "'");
+            }
+
+            index += 1;
+
+            return token;
+        }
+
+        private boolean accept(String token) {
+            boolean accepted = (index < tokens.size() && tokens.get(index).equalsIgnoreCase(token));
+
+            if (accepted) {
+                index += 1;
+            }
+
+            return accepted;
+        }
+
+        private static boolean isOperator(String token) {
+            return (token.equalsIgnoreCase(Operator.AND.name())
+                    || token.equalsIgnoreCase(Operator.OR.name())
+                    || token.equalsIgnoreCase("WITH"));
+        }
+
+        private static boolean isIdentifierPart(char character) {
+            return (Character.isLetterOrDigit(character)
+                    || character == '-' || character == '.' || character == ':' || character == '_');
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.spdx.rdfparser.license.AnyLicenseInfo;
+import org.spdx.rdfparser.license.LicenseInfoFactory;
+import org.spdx.spdxspreadsheet.InvalidLicenseStringException;
+
+import static ball.maven.plugins.license.LicenseUtilityMethods.isFullySpdxListed;
+import static lombok.AccessLevel.PRIVATE;
+
+/**
+ * Memoizing {@link LicenseInfoFactory#parseSPDXLicenseString(String)}.
+ * Each distinct expression is parsed once per JVM: fully SPDX listed
+ * results (composed of the shared listed {@link org.spdx.rdfparser.license.License}
+ * instances) and parse failures are cached; results containing
+ * {@link org.spdx.rdfparser.license.ExtractedLicenseInfo}s are mutable
+ * and are returned uncached.  The cache is cleared once it reaches
+ * {@link #MAXIMUM_SIZE} entries.
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@NoArgsConstructor(access = PRIVATE) @ToString
+public abstract class LicenseExpressionCache {
+
+    /**
+     * Maximum number of cached expressions.
+     */
+    public static final int MAXIMUM_SIZE = 4096;
+
+    private static final ConcurrentHashMap<String,Object> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Static method to parse an SPDX license expression.
+     *
+     * @param   string          The SPDX license expression.
+     *
+     * @return  The {@link AnyLicenseInfo}.
+     *
+     * @throws  InvalidLicenseStringException
+     *                          If {@code string} cannot be parsed.
+     */
+    public static AnyLicenseInfo parse(String string) throws InvalidLicenseStringException {
+        Object value = CACHE.get(string);
+
+        if (value == null) {
+            try {
+                AnyLicenseInfo license = LicenseInfoFactory.parseSPDXLicenseString(string);
+
+                value = license;
+
+                if (isFullySpdxListed(license)) {
+                    value = cache(string, license);
+                }
+            } catch (InvalidLicenseStringException exception) {
+                value = cache(string, new Failure(exception.getMessage()));
+            }
+        }
+
+        if (value instanceof Failure) {
+            throw new InvalidLicenseStringException(((Failure) value).message);
+        }
+
+        return (AnyLicenseInfo) value;
+    }
+
+    /**
+     * Static method to parse an SPDX license expression.
+     *
+     * @param   string          The SPDX license expression.
+     *
+     * @return  The {@link AnyLicenseInfo} or {@code null} if
+     *          {@code string} cannot be parsed.
+     */
+    public static AnyLicenseInfo parseOrNull(String string) {
+        AnyLicenseInfo license = null;
+
+        try {
+            license = parse(string);
+        } catch (Exception exception) {
+        }
+
+        return license;
+    }
+
+    private static Object cache(String string, Object value) {
+        if (CACHE.size() >= MAXIMUM_SIZE) {
+            CACHE.clear();
+        }
+
+        Object previous = CACHE.putIfAbsent(string, value);
+
+        return (previous != null) ? previous : value;
+    }
+
+    @ToString
+    private static class Failure {
+        private final String message;
+
+        public Failure(String message) { this.message = message; }
+    }
+}
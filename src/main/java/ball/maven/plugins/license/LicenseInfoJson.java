@@ -0,0 +1,182 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.spdx.rdfparser.license.AnyLicenseInfo;
+import org.spdx.rdfparser.license.ConjunctiveLicenseSet;
+import org.spdx.rdfparser.license.DisjunctiveLicenseSet;
+import org.spdx.rdfparser.license.ExtractedLicenseInfo;
+import org.spdx.rdfparser.license.LicenseSet;
+
+import static ball.maven.plugins.license.LicenseUtilityMethods.isFullySpdxListed;
+import static lombok.AccessLevel.PRIVATE;
+
+/**
+ * {@link AnyLicenseInfo} to/from {@link JsonNode} methods.  Fully SPDX
+ * listed sub-trees are represented by their expression; unmatched
+ * {@link ExtractedLicenseInfo} leaves retain their ID, name, text, and
+ * "see also" URLs.
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@NoArgsConstructor(access = PRIVATE) @ToString
+public abstract class LicenseInfoJson {
+    private static final JsonNodeFactory FACTORY = JsonNodeFactory.instance;
+
+    private static final String EXPRESSION = "expression";
+    private static final String AND = "and";
+    private static final String OR = "or";
+    private static final String EXTRACTED = "extracted";
+    private static final String TYPE = "type";
+    private static final String NAME = "name";
+    private static final String TEXT = "text";
+    private static final String SEE_ALSO = "seeAlso";
+
+    /**
+     * Static method to encode an {@link AnyLicenseInfo}.
+     *
+     * @param   license         The {@link AnyLicenseInfo}.
+     *
+     * @return  The {@link JsonNode} or {@code null} if {@code license}
+     *          cannot be represented.
+     */
+    public static JsonNode toJson(AnyLicenseInfo license) {
+        ObjectNode node = null;
+
+        if (license != null) {
+            if (isFullySpdxListed(license)) {
+                node = FACTORY.objectNode().put(EXPRESSION, license.toString());
+            } else if (license instanceof LicenseSet) {
+                ArrayNode members = FACTORY.arrayNode();
+
+                for (AnyLicenseInfo member : ((LicenseSet) license).getMembers()) {
+                    JsonNode child = toJson(member);
+
+                    if (child == null) {
+                        members = null;
+                        break;
+                    }
+
+                    members.add(child);
+                }
+
+                if (members != null) {
+                    node = FACTORY.objectNode();
+                    node.set((license instanceof DisjunctiveLicenseSet) ? OR : AND, members);
+                }
+            } else if (license instanceof ExtractedLicenseInfo) {
+                ExtractedLicenseInfo extracted = (ExtractedLicenseInfo) license;
+                ArrayNode seeAlso = FACTORY.arrayNode();
+
+                if (extracted.getSeeAlso() != null) {
+                    for (String string : extracted.getSeeAlso()) {
+                        seeAlso.add(string);
+                    }
+                }
+
+                node =
+                    FACTORY.objectNode()
+                    .put(EXTRACTED, extracted.getLicenseId())
+                    .put(TYPE, license.getClass().getSimpleName())
+                    .put(NAME, extracted.getName())
+                    .put(TEXT, extracted.getExtractedText());
+                node.set(SEE_ALSO, seeAlso);
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * Static method to decode an {@link AnyLicenseInfo}.
+     *
+     * @param   node            The {@link JsonNode}.
+     * @param   parser          The {@link Function} to parse SPDX
+     *                          license expressions.
+     *
+     * @return  The {@link AnyLicenseInfo} or {@code null} if {@code node}
+     *          cannot be decoded.
+     */
+    public static AnyLicenseInfo fromJson(JsonNode node, Function<String,AnyLicenseInfo> parser) {
+        AnyLicenseInfo license = null;
+
+        if (node != null && node.isObject()) {
+            if (node.has(EXPRESSION)) {
+                license = parser.apply(node.get(EXPRESSION).asText());
+            } else if (node.has(AND) || node.has(OR)) {
+                List<AnyLicenseInfo> members = new ArrayList<>();
+
+                for (JsonNode child : node.has(AND) ? node.get(AND) : node.get(OR)) {
+                    AnyLicenseInfo member = fromJson(child, parser);
+
+                    if (member == null) {
+                        members = null;
+                        break;
+                    }
+
+                    members.add(member);
+                }
+
+                if (members != null) {
+                    AnyLicenseInfo[] array = members.toArray(new AnyLicenseInfo[] { });
+
+                    license =
+                        node.has(AND) ? new ConjunctiveLicenseSet(array) : new DisjunctiveLicenseSet(array);
+                }
+            } else if (node.has(EXTRACTED)) {
+                String id = node.path(EXTRACTED).asText();
+                String text = node.path(TEXT).asText();
+                List<String> seeAlso = new ArrayList<>();
+
+                for (JsonNode child : node.path(SEE_ALSO)) {
+                    seeAlso.add(child.asText());
+                }
+
+                String[] urls = seeAlso.toArray(new String[] { });
+
+                switch (node.path(TYPE).asText()) {
+                case "URLLicenseInfo":
+                    license = new URLLicenseInfo(id, urls);
+                    break;
+
+                case "TextLicenseInfo":
+                    license = new TextLicenseInfo(id, text, urls);
+                    break;
+
+                default:
+                    license = new ExtractedLicenseInfo(id, text);
+                    ((ExtractedLicenseInfo) license).setName(node.path(NAME).asText(id));
+                    ((ExtractedLicenseInfo) license).setSeeAlso(urls);
+                    break;
+                }
+            }
+        }
+
+        return license;
+    }
+}
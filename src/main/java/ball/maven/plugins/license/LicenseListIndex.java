@@ -0,0 +1,249 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Compact index of the SPDX ID, alternate IDs and names, and URIs of
+ * every license in {@code resources/licenses-full.json}.  The index is
+ * generated at plugin build time with {@link #main(String[])} and loaded
+ * (once, on first use) from the {@link #RESOURCE} class resource; if the
+ * resource is not present, {@code licenses-full.json} is parsed instead.
+ *
+ * {@bean.info}
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@Getter
+@Slf4j
+public class LicenseListIndex {
+
+    /**
+     * Generated class resource name.
+     */
+    public static final String RESOURCE = LicenseListIndex.class.getSimpleName() + ".bin";
+
+    private static final String LICENSES_FULL_JSON = "resources/licenses-full.json";
+    private static final int MAGIC = 0x4C4C4958;       /* "LLIX" */
+    private static final int VERSION = 1;
+
+    private final List<Entry> entries;
+
+    private LicenseListIndex(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Method to get the (lazily loaded) default {@link LicenseListIndex}.
+     *
+     * @return  The default {@link LicenseListIndex}.
+     */
+    public static LicenseListIndex getDefault() { return Holder.INSTANCE; }
+
+    /**
+     * Static method to read an index.
+     *
+     * @param   in              The {@link InputStream} (not closed by
+     *                          this method).
+     *
+     * @return  The {@link LicenseListIndex}.
+     *
+     * @throws  IOException     If the index cannot be read.
+     */
+    public static LicenseListIndex read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new GZIPInputStream(new BufferedInputStream(in)));
+
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Unrecognized index format");
+        }
+
+        int count = data.readInt();
+        List<Entry> entries = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i += 1) {
+            entries.add(new Entry(data.readUTF(), readList(data), readList(data)));
+        }
+
+        return new LicenseListIndex(entries);
+    }
+
+    private static List<String> readList(DataInputStream data) throws IOException {
+        int count = data.readUnsignedShort();
+        List<String> list = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i += 1) {
+            list.add(data.readUTF());
+        }
+
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Method to write this index.
+     *
+     * @param   out             The {@link OutputStream} (not closed by
+     *                          this method).
+     *
+     * @throws  IOException     If the index cannot be written.
+     */
+    public void write(OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(out));
+        DataOutputStream data = new DataOutputStream(gzip);
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(entries.size());
+
+        for (Entry entry : entries) {
+            data.writeUTF(entry.getId());
+            writeList(data, entry.getNames());
+            writeList(data, entry.getUris());
+        }
+
+        data.flush();
+        gzip.finish();
+        gzip.flush();
+    }
+
+    private static void writeList(DataOutputStream data, List<String> list) throws IOException {
+        data.writeShort(list.size());
+
+        for (String string : list) {
+            data.writeUTF(string);
+        }
+    }
+
+    /**
+     * Static method to parse {@code licenses-full.json}.
+     *
+     * @param   url             The {@link URL} of the JSON document.
+     *
+     * @return  The {@link LicenseListIndex}.
+     *
+     * @throws  IOException     If the document cannot be read.
+     */
+    public static LicenseListIndex parse(URL url) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+
+        for (JsonNode node : new ObjectMapper().readTree(url).at("/licenses")) {
+            String id = node.at("/identifiers/spdx/0").asText();
+
+            if (isNotBlank(id)) {
+                List<String> names = new ArrayList<>();
+                List<String> uris = new ArrayList<>();
+
+                for (String string : new String[] { node.at("/id").asText(), node.at("/name").asText() }) {
+                    if (isNotBlank(string)) {
+                        names.add(string);
+                    }
+                }
+
+                for (JsonNode uri : node.at("/uris")) {
+                    if (isNotBlank(uri.asText())) {
+                        uris.add(uri.asText());
+                    }
+                }
+
+                entries.add(new Entry(id, Collections.unmodifiableList(names), Collections.unmodifiableList(uris)));
+            }
+        }
+
+        return new LicenseListIndex(entries);
+    }
+
+    /**
+     * Build-time entry point to generate the index resource.
+     *
+     * @param   argv            The output {@link File} name.
+     *
+     * @throws  Exception       If the index cannot be generated.
+     */
+    public static void main(String[] argv) throws Exception {
+        URL url = LicenseListIndex.class.getClassLoader().getResource(LICENSES_FULL_JSON);
+
+        if (url == null) {
+            throw new IllegalStateException(LICENSES_FULL_JSON + " not found");
+        }
+
+        LicenseListIndex index = parse(url);
+        File file = new File(argv[0]);
+
+        file.getParentFile().mkdirs();
+
+        try (OutputStream out = new FileOutputStream(file)) {
+            index.write(out);
+        }
+    }
+
+    /**
+     * {@link LicenseListIndex} entry.
+     *
+     * {@bean.info}
+     */
+    @AllArgsConstructor @Getter @ToString
+    public static class Entry {
+        private final String id;
+        private final List<String> names;
+        private final List<String> uris;
+    }
+
+    private static class Holder {
+        private static final LicenseListIndex INSTANCE = load();
+
+        private static LicenseListIndex load() {
+            LicenseListIndex index = null;
+
+            try (InputStream in = LicenseListIndex.class.getResourceAsStream(RESOURCE)) {
+                if (in != null) {
+                    index = read(in);
+                } else {
+                    log.debug("{} not found; parsing {}", RESOURCE, LICENSES_FULL_JSON);
+                    index = parse(LicenseListIndex.class.getClassLoader().getResource(LICENSES_FULL_JSON));
+                }
+            } catch (Exception exception) {
+                throw new ExceptionInInitializerError(exception);
+            }
+
+            return index;
+        }
+    }
+}
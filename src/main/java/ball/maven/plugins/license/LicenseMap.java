@@ -20,9 +20,18 @@ package ball.maven.plugins.license;
  */
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.util.Objects;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.stream.Stream;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -33,46 +42,66 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.spdx.rdfparser.license.AnyLicenseInfo;
 import org.spdx.rdfparser.license.License;
-import org.spdx.rdfparser.license.LicenseInfoFactory;
 /* import org.spdx.rdfparser.license.ListedExceptions; */
 import org.spdx.rdfparser.license.ListedLicenses;
 
 import static ball.maven.plugins.license.LicenseUtilityMethods.isFullySpdxListed;
 import static org.apache.commons.lang3.StringUtils.SPACE;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 /**
  * {@link java.util.Map} implementation that relates SPDX ID and known
  * aliases to {@link License} sourced from
  * {@link ListedLicenses#getListedLicenses()}.
+ * <p>
+ * {@link #init()} registers every SPDX ID, name, and alias (as the SPDX
+ * expression it stands for) without materializing any {@link License};
+ * the names are read from the SPDX license list index.  Each
+ * {@link License} (or alias expression) is materialized on first access
+ * and cached in this {@link java.util.Map} (keyed by SPDX expression).
+ * </p>
+ * <p>
+ * The keys are frozen at the end of {@link #init()}: every key is
+ * indexed (in a {@link HashMap}) by its lower-case form and by its
+ * normalized form (whitespace runs replaced by {@code -} and any
+ * {@code v} or {@code version} prefix to a version number removed), and
+ * {@link #get(Object)} is a probe of that index.  Misses are remembered
+ * in a bounded negative cache.  Once frozen,
+ * {@link #put(String,AnyLicenseInfo)},
+ * {@link #putIfAbsent(String,AnyLicenseInfo)}, and {@link #remove(Object)}
+ * throw {@link UnsupportedOperationException}:  Only materialized values
+ * are added (internally) after {@link #init()}.
+ * </p>
+ * <p>
+ * Names that are not found in the index (e.g., unaliased POM license
+ * names) are resolved with a {@link LicenseNameMatcher} if there is a
+ * sufficiently confident match.
+ * </p>
  *
  * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
  */
 @Named @Singleton
 @Slf4j
-public class LicenseMap extends TreeMap<String,AnyLicenseInfo> implements DefaultMethods {
+public class LicenseMap extends ConcurrentSkipListMap<String,AnyLicenseInfo> implements DefaultMethods {
     private static final long serialVersionUID = 8959458091372664080L;
 
     private static final String ONLY_USE_LOCAL_LICENSES = "SPDXParser.OnlyUseLocalLicenses";
-
-    /**
-     * {@code resources/licenses-full.json} read from SPDX artifacts.
-     */
-    public static final JsonNode LICENSES_FULL_JSON;
+    private static final String LICENSES_JSON = "resources/stdlicenses/licenses.json";
+    private static final int MAXIMUM_MISSES = 4096;
 
     static {
         if (System.getProperty(ONLY_USE_LOCAL_LICENSES) == null) {
             System.setProperty(ONLY_USE_LOCAL_LICENSES, String.valueOf(true));
         }
-
-        try {
-            LICENSES_FULL_JSON =
-                new ObjectMapper()
-                .readTree(LicenseMap.class.getClassLoader().getResource("resources/licenses-full.json"));
-        } catch (Exception exception) {
-            throw new ExceptionInInitializerError(exception);
-        }
     }
 
+    private transient ListedLicenses licenses = null;
+    private transient Set<String> ids = Collections.emptySet();
+    private transient volatile Map<String,String> index = null;
+    private transient LicenseNameMatcher<String> matcher = null;
+    private final transient Map<String,String> matches = new ConcurrentHashMap<>();
+    private final transient Set<String> misses = ConcurrentHashMap.newKeySet();
+
     /**
      * Sole constructor.
      */
@@ -81,67 +110,295 @@ public class LicenseMap extends TreeMap<String,AnyLicenseInfo> implements Defaul
 
     @PostConstruct
     public void init() throws Exception {
-        ListedLicenses licenses = ListedLicenses.getListedLicenses();
+        TreeMap<String,String> keys = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        licenses = ListedLicenses.getListedLicenses();
         /* ListedExceptions exceptions = ListedExceptions.getListedExceptions(); */
 
+        Map<String,String> names = getListedLicenseNames();
+
         for (String key : licenses.getSpdxListedLicenseIds()) {
-            License license = licenses.getListedLicenseById(key);
+            String name = names.get(key);
 
-            put(key, license);
-            putIfAbsent(license.getName(), license);
+            if (name == null) {
+                name = licenses.getListedLicenseById(key).getName();
+            }
+
+            keys.put(key, key);
+            keys.putIfAbsent(name, key);
         }
 
-        for (JsonNode node : LICENSES_FULL_JSON.at("/licenses")) {
-            String spdx = node.at("/identifiers/spdx/0").asText();
+        for (LicenseListIndex.Entry entry : LicenseListIndex.getDefault().getEntries()) {
+            String spdx = entry.getId();
 
-            if (containsKey(spdx)) {
-                Stream.of(node.at("/id").asText(), node.at("/name").asText())
+            if (keys.containsKey(spdx)) {
+                entry.getNames().stream()
                     .map(t -> t.trim())
                     .map(t -> t.replaceAll("[\\p{Space}]+", SPACE))
                     .filter(StringUtils::isNotBlank)
-                    .forEach(t -> computeIfAbsent(t, k -> get(spdx)));
+                    .forEach(t -> keys.putIfAbsent(t, keys.get(spdx)));
             }
         }
 
         Properties aliases = getXMLProperties("aliases");
 
         for (String id : aliases.stringPropertyNames()) {
-            AnyLicenseInfo value = LicenseInfoFactory.parseSPDXLicenseString(id);
-
-            if (! isFullySpdxListed(value)) {
-                throw new IllegalArgumentException(id);
-            }
-
             Stream.of(aliases.getProperty(id).split("\\R+"))
                 .map(String::trim)
                 .filter(StringUtils::isNotBlank)
-                .forEach(t -> putIfAbsent(t, value));
+                .forEach(t -> keys.putIfAbsent(t, id));
         }
+
+        freeze(keys);
+    }
+
+    /**
+     * Static method to get the SPDX listed license IDs:  The IDs
+     * {@link #init()} registers (from
+     * {@link ListedLicenses#getSpdxListedLicenseIds()}) sorted
+     * case-insensitively.  {@link LicenseExpression} uses the same list so
+     * it agrees with the {@link License}s this {@link LicenseMap}
+     * materializes.
+     *
+     * @return  The SPDX listed license IDs (empty if the list cannot be
+     *          loaded).
+     */
+    static String[] getSpdxListedLicenseIds() {
+        String[] ids = new String[] { };
+
+        try {
+            ids = ListedLicenses.getListedLicenses().getSpdxListedLicenseIds().clone();
+            Arrays.sort(ids, String.CASE_INSENSITIVE_ORDER);
+        } catch (Exception exception) {
+            log.warn("Cannot load SPDX listed license IDs: {}", exception.getMessage());
+            log.debug("{}", exception.getMessage(), exception);
+        }
+
+        return ids;
+    }
+
+    /*
+     * ID to name from the SPDX license list index (avoiding materializing
+     * each License).  Empty if the index cannot be read.
+     */
+    private Map<String,String> getListedLicenseNames() {
+        Map<String,String> map = new HashMap<>();
+
+        try (InputStream in = ListedLicenses.class.getClassLoader().getResourceAsStream(LICENSES_JSON)) {
+            if (in != null) {
+                for (JsonNode node : new ObjectMapper().readTree(in).at("/licenses")) {
+                    String id = node.at("/licenseId").asText();
+                    String name = node.at("/name").asText();
+
+                    if (isNotBlank(id) && isNotBlank(name)) {
+                        map.put(id, name);
+                    }
+                }
+            }
+        } catch (Exception exception) {
+            log.debug("{}: {}", LICENSES_JSON, exception.getMessage(), exception);
+        }
+
+        return map;
+    }
+
+    private void freeze(Map<String,String> keys) {
+        HashMap<String,String> index = new HashMap<>();
+
+        for (Map.Entry<String,String> entry : keys.entrySet()) {
+            index.put(entry.getKey().trim().toLowerCase(Locale.ROOT), entry.getValue());
+        }
+
+        for (Map.Entry<String,String> entry : keys.entrySet()) {
+            index.putIfAbsent(normalize(entry.getKey()), entry.getValue());
+        }
+
+        this.ids = Collections.unmodifiableSet(new TreeSet<>(keys.values()));
+        this.matcher = new LicenseNameMatcher<>(keys);
+        this.index = Collections.unmodifiableMap(index);
     }
 
     @PreDestroy
     public void destroy() {
-        log.debug("{}.size() = {}", getClass().getSimpleName(), size());
+        log.debug("{}.size() = {} (of {})", getClass().getSimpleName(), size(), ids.size());
     }
 
+    /**
+     * Method to get the SPDX expressions (listed license IDs and alias
+     * expressions) known to this {@link LicenseMap}.  Each may be
+     * materialized with {@link #get(Object)}.
+     *
+     * @return  The {@link Set} of SPDX expressions.
+     */
+    public Set<String> getExpressions() { return ids; }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Any {@link License} (or alias expression) is materialized on first
+     * access.
+     */
     @Override
     public AnyLicenseInfo get(Object key) {
         AnyLicenseInfo value = super.get(key);
 
-        if (value == null) {
-            if (key instanceof String) {
-                String string = ((String) key).trim();
-
-                value =
-                    Stream.of(string.replaceAll("(?i)[\\p{Space}]+", "-"),
-                              string.replaceAll("(?i)(V(ERSION)?)[\\p{Space}]?([\\p{Digit}])", "$3"))
-                    .filter(t -> (! string.equals(t)))
-                    .map(t -> get(t))
-                    .filter(Objects::nonNull)
-                    .findFirst().orElse(null);
+        if (value == null && index != null && key instanceof String) {
+            String expression = resolve((String) key);
+
+            if (expression != null) {
+                value = super.get(expression);
+
+                if (value == null) {
+                    value = materialize(expression);
+
+                    if (value != null) {
+                        AnyLicenseInfo previous = super.putIfAbsent(expression, value);
+
+                        if (previous != null) {
+                            value = previous;
+                        }
+                    }
+                }
+            }
+        }
+
+        return value;
+    }
+
+    @Override
+    public AnyLicenseInfo put(String key, AnyLicenseInfo value) {
+        if (index != null) {
+            throw new UnsupportedOperationException();
+        }
+
+        return super.put(key, value);
+    }
+
+    @Override
+    public AnyLicenseInfo putIfAbsent(String key, AnyLicenseInfo value) {
+        if (index != null) {
+            throw new UnsupportedOperationException();
+        }
+
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public AnyLicenseInfo remove(Object key) {
+        if (index != null) {
+            throw new UnsupportedOperationException();
+        }
+
+        return super.remove(key);
+    }
+
+    private String resolve(String key) {
+        String string = key.trim().toLowerCase(Locale.ROOT);
+        String expression = index.get(string);
+
+        if (expression == null && (! misses.contains(string))) {
+            expression = index.get(normalize(string));
+
+            if (expression == null) {
+                expression = matches.get(string);
             }
+
+            if (expression == null) {
+                expression = matcher.match(string);
+
+                if (expression != null) {
+                    log.debug("Matched '{}' to {}", key, expression);
+
+                    if (matches.size() >= MAXIMUM_MISSES) {
+                        matches.clear();
+                    }
+
+                    matches.put(string, expression);
+                }
+            }
+
+            if (expression == null) {
+                if (misses.size() >= MAXIMUM_MISSES) {
+                    misses.clear();
+                }
+
+                misses.add(string);
+            }
+        }
+
+        return expression;
+    }
+
+    private AnyLicenseInfo materialize(String expression) {
+        AnyLicenseInfo value = null;
+
+        try {
+            if (licenses.isSpdxListedLicenseID(expression)) {
+                value = licenses.getListedLicenseById(expression);
+            } else {
+                value = LicenseExpressionCache.parse(expression);
+
+                if (! isFullySpdxListed(value)) {
+                    log.warn("{}: Not fully SPDX listed", expression);
+                    value = null;
+                }
+            }
+        } catch (Exception exception) {
+            log.warn("{}: {}", expression, exception.getMessage());
+            log.debug("{}", exception.getMessage(), exception);
         }
 
         return value;
     }
+
+    /*
+     * Lower-case, replace whitespace runs with '-', and drop "v" or
+     * "version" (and a single following whitespace character) preceding
+     * a digit.  Equivalent to the
+     * "(?i)[\\p{Space}]+" -> "-" and
+     * "(?i)(V(ERSION)?)[\\p{Space}]?([\\p{Digit}])" -> "$3"
+     * rewrites without compiling (or allocating) regular expressions.
+     */
+    private static String normalize(String key) {
+        String string = key.trim();
+        int length = string.length();
+        StringBuilder buffer = new StringBuilder(length);
+        int i = 0;
+
+        while (i < length) {
+            char character = string.charAt(i);
+
+            if (Character.isWhitespace(character)) {
+                while (i < length && Character.isWhitespace(string.charAt(i))) {
+                    i += 1;
+                }
+
+                buffer.append('-');
+            } else {
+                int next = i + 1;
+
+                if (character == 'v' || character == 'V') {
+                    if (string.regionMatches(true, next, "ersion", 0, 6)) {
+                        next += 6;
+                    }
+
+                    if (next < length && Character.isWhitespace(string.charAt(next))) {
+                        next += 1;
+                    }
+
+                    if (next < length && Character.isDigit(string.charAt(next))) {
+                        i = next;
+                    } else {
+                        buffer.append(Character.toLowerCase(character));
+                        i += 1;
+                    }
+                } else {
+                    buffer.append(Character.toLowerCase(character));
+                    i += 1;
+                }
+            }
+        }
+
+        return buffer.toString();
+    }
 }
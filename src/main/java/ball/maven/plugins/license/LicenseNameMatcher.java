@@ -0,0 +1,261 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Token-set similarity index over license IDs, names, and aliases.  Names
+ * are reduced to word tokens (lower-case; stop words such as "the",
+ * "license", and "version" removed) and version tokens (trailing
+ * {@code .0} components removed).  A candidate matches only if its version
+ * tokens are identical to the query's and its words include every known
+ * query word; word tokens are scored with the IDF-weighted Dice
+ * coefficient.  Query words unknown to the index are weighted as the
+ * rarest possible word so that they lower (rather than are ignored by)
+ * the score.  The best
+ * candidate is returned if it scores at least {@link #THRESHOLD} and
+ * exceeds the best candidate for any other license by at least
+ * {@link #MARGIN}.
+ *
+ * @param       <V>             The value (license) type.
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+public class LicenseNameMatcher<V> {
+
+    /**
+     * Minimum score for a match.
+     */
+    public static final double THRESHOLD = 0.85;
+
+    /**
+     * Minimum score difference from the best alternative license.
+     */
+    public static final double MARGIN = 0.1;
+
+    private static final Set<String> STOP =
+        new HashSet<>(Arrays.asList("a", "an", "and", "by", "for", "of", "the",
+                                    "license", "licence", "licensed", "licenses",
+                                    "software", "spdx", "v", "ver", "version"));
+
+    private final List<Entry<V>> entries = new ArrayList<>();
+    private final Map<String,List<Entry<V>>> postings = new HashMap<>();
+    private final Map<String,Double> weights = new HashMap<>();
+
+    /**
+     * Sole constructor.
+     *
+     * @param   map             The {@link Map} of name to license to
+     *                          index.
+     */
+    public LicenseNameMatcher(Map<String,? extends V> map) {
+        Map<V,Set<Set<String>>> seen = new HashMap<>();
+
+        for (Map.Entry<String,? extends V> entry : map.entrySet()) {
+            Tokens tokens = tokenize(entry.getKey());
+
+            if (! tokens.words.isEmpty()
+                && seen.computeIfAbsent(entry.getValue(), k -> new HashSet<>()).add(tokens.all())) {
+                Entry<V> value = new Entry<>(tokens, entry.getValue());
+
+                entries.add(value);
+
+                for (String word : tokens.words) {
+                    postings.computeIfAbsent(word, k -> new ArrayList<>()).add(value);
+                }
+            }
+        }
+
+        for (Map.Entry<String,List<Entry<V>>> entry : postings.entrySet()) {
+            weights.put(entry.getKey(), Math.log(1.0 + ((double) entries.size()) / entry.getValue().size()));
+        }
+    }
+
+    /**
+     * Method to match a license name.
+     *
+     * @param   name            The license name.
+     *
+     * @return  The matching license or {@code null} if there is no
+     *          sufficiently confident match.
+     */
+    public V match(String name) {
+        V value = null;
+        Tokens query = tokenize(name);
+        int unknown = query.words.size();
+
+        query.words.retainAll(postings.keySet());
+        unknown -= query.words.size();
+
+        if (! query.words.isEmpty()) {
+            Set<Entry<V>> candidates = new LinkedHashSet<>();
+
+            for (String word : query.words) {
+                candidates.addAll(postings.get(word));
+            }
+
+            double queryWeight = weigh(query.words) + unknown * Math.log(1.0 + entries.size());
+            Map<Entry<V>,Double> scores = new HashMap<>();
+            Entry<V> best = null;
+            double score = 0;
+
+            for (Entry<V> candidate : candidates) {
+                if (candidate.tokens.versions.equals(query.versions)
+                    && candidate.tokens.words.containsAll(query.words)) {
+                    double common = 0;
+
+                    for (String word : candidate.tokens.words) {
+                        if (query.words.contains(word)) {
+                            common += weights.get(word);
+                        }
+                    }
+
+                    double similarity = (2 * common) / (queryWeight + weigh(candidate.tokens.words));
+
+                    scores.put(candidate, similarity);
+
+                    if (best == null || similarity > score) {
+                        best = candidate;
+                        score = similarity;
+                    }
+                }
+            }
+
+            if (best != null && score >= THRESHOLD) {
+                boolean unique = true;
+
+                for (Map.Entry<Entry<V>,Double> entry : scores.entrySet()) {
+                    if ((! Objects.equals(entry.getKey().value, best.value))
+                        && score - entry.getValue() < MARGIN) {
+                        unique = false;
+                        break;
+                    }
+                }
+
+                if (unique) {
+                    value = best.value;
+                }
+            }
+        }
+
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s(entries=%d, words=%d)",
+                             getClass().getSimpleName(), entries.size(), postings.size());
+    }
+
+    private double weigh(Set<String> words) {
+        double weight = 0;
+
+        for (String word : words) {
+            weight += weights.getOrDefault(word, 0.0);
+        }
+
+        return weight;
+    }
+
+    /*
+     * Split into alphabetic and numeric (digits and dots) runs.  A
+     * trailing 'v' on an alphabetic run immediately followed by a numeric
+     * run (e.g., "gplv3") is dropped.
+     */
+    private static Tokens tokenize(String name) {
+        Tokens tokens = new Tokens(new TreeSet<>(), new TreeSet<>());
+        String string = name.toLowerCase(Locale.ROOT);
+        int length = string.length();
+        int i = 0;
+
+        while (i < length) {
+            char character = string.charAt(i);
+            int start = i;
+
+            if (Character.isLetter(character)) {
+                while (i < length && Character.isLetter(string.charAt(i))) {
+                    i += 1;
+                }
+
+                String word = string.substring(start, i);
+
+                if (word.length() > 1 && word.endsWith("v")
+                    && i < length && Character.isDigit(string.charAt(i))) {
+                    word = word.substring(0, word.length() - 1);
+                }
+
+                if (! STOP.contains(word)) {
+                    tokens.words.add(word);
+                }
+            } else if (Character.isDigit(character)) {
+                while (i < length
+                       && (Character.isDigit(string.charAt(i)) || string.charAt(i) == '.')) {
+                    i += 1;
+                }
+
+                String version = string.substring(start, i).replaceAll("[.]+$", "");
+
+                while (version.endsWith(".0")) {
+                    version = version.substring(0, version.length() - 2);
+                }
+
+                tokens.versions.add(version);
+            } else {
+                i += 1;
+            }
+        }
+
+        return tokens;
+    }
+
+    @AllArgsConstructor @ToString
+    private static class Tokens {
+        private final Set<String> words;
+        private final Set<String> versions;
+
+        public Set<String> all() {
+            Set<String> set = new TreeSet<>(words);
+
+            for (String version : versions) {
+                set.add("#" + version);
+            }
+
+            return set;
+        }
+    }
+
+    @AllArgsConstructor @ToString
+    private static class Entry<V> {
+        private final Tokens tokens;
+        private final V value;
+    }
+}
@@ -21,7 +21,9 @@ package ball.maven.plugins.license;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -34,7 +36,6 @@ import org.spdx.compare.LicenseCompareHelper;
 import org.spdx.rdfparser.license.AnyLicenseInfo;
 import org.spdx.rdfparser.license.DisjunctiveLicenseSet;
 import org.spdx.rdfparser.license.ExtractedLicenseInfo;
-import org.spdx.rdfparser.license.LicenseInfoFactory;
 import org.spdx.rdfparser.license.LicenseSet;
 
 /**
@@ -109,6 +110,19 @@ public class LicenseResolver {
         return urlLicenseInfoParser.parse(this, in);
     }
 
+    /**
+     * Method to fetch and parse (and cache) the document at a license
+     * {@link java.net.URL} in advance of its use.
+     *
+     * @param   url           The {@link java.net.URL} ({@link String}
+     *                        representation).
+     *
+     * @return  Parsed {@link AnyLicenseInfo}.
+     */
+    public AnyLicenseInfo prefetch(String url) {
+        return parse(new URLLicenseInfo(null, url));
+    }
+
     private AnyLicenseInfo parse(TextLicenseInfo in) {
         String[] ids = parseLicenseText(in.getExtractedText());
         AnyLicenseInfo out = toLicense(ids);
@@ -123,14 +137,7 @@ public class LicenseResolver {
     }
 
     protected AnyLicenseInfo parseLicenseString(String string) {
-        AnyLicenseInfo license = null;
-
-        try {
-            license = LicenseInfoFactory.parseSPDXLicenseString(string);
-        } catch (Exception exception) {
-        }
-
-        return license;
+        return LicenseExpressionCache.parseOrNull(string);
     }
 
     protected String[] parseLicenseText(String text) {
@@ -162,7 +169,13 @@ public class LicenseResolver {
         } else {
             AnyLicenseInfo[] members = in.stream().toArray(AnyLicenseInfo[]::new);
 
-            Arrays.sort(members, Comparator.comparing(Objects::toString));
+            Map<AnyLicenseInfo,String> keys = new IdentityHashMap<>();
+
+            for (AnyLicenseInfo member : members) {
+                keys.put(member, Objects.toString(member));
+            }
+
+            Arrays.sort(members, Comparator.comparing(keys::get));
             out = new DisjunctiveLicenseSet(members);
         }
 
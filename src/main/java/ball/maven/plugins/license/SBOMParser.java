@@ -0,0 +1,486 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.File;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.apache.maven.artifact.Artifact;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Streaming CycloneDX and SPDX (JSON) SBOM license parser.  Returns the
+ * license {@link Claim}s of the SBOM's subject (CycloneDX
+ * {@code metadata.component}; SPDX {@code documentDescribes} or
+ * {@code DESCRIBES} packages) that is identified by a {@code pkg:maven}
+ * purl, keyed by {@link ArtifactKey}.  Dependencies and embedded
+ * components (CycloneDX nested {@code components}; SPDX {@code CONTAINS}
+ * relationships) listed in the SBOM are skipped: Their licenses are not
+ * evidence of the subject's license and an SBOM is only consulted for
+ * the artifact it is published with.  The first claim for a key (in
+ * document order) wins.
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@NoArgsConstructor @ToString
+public class SBOMParser {
+    private static final String[] SUFFIXES = new String[] { "-cyclonedx.json", ".spdx.json", "-spdx.json" };
+
+    private static final Pattern PURL =
+        Pattern.compile("(?i)pkg:maven/(?<group>[^/]+)/(?<artifact>[^@?#/]+)@(?<version>[^?#/]+).*");
+
+    private static final String NOASSERTION = "NOASSERTION";
+    private static final String NONE = "NONE";
+
+    private final JsonFactory factory = new JsonFactory();
+
+    /**
+     * Method to locate any SBOM published alongside an {@link Artifact}
+     * in the repository.
+     *
+     * @param   artifact        The {@link Artifact}.
+     *
+     * @return  The SBOM {@link File}s found (may be empty).
+     */
+    public List<File> locate(Artifact artifact) {
+        List<File> list = new ArrayList<>();
+        File file = artifact.getFile();
+
+        if (file != null && file.isFile()) {
+            String prefix = artifact.getArtifactId() + "-" + artifact.getVersion();
+
+            for (String suffix : SUFFIXES) {
+                File sbom = new File(file.getParentFile(), prefix + suffix);
+
+                if (sbom.isFile()) {
+                    list.add(sbom);
+                }
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Method to parse a CycloneDX or SPDX JSON SBOM.
+     *
+     * @param   file            The SBOM {@link File}.
+     *
+     * @return  The {@link Map} of {@link ArtifactKey} to {@link Claim}s.
+     *
+     * @throws  IOException     If the {@link File} cannot be read or
+     *                          parsed.
+     */
+    public Map<ArtifactKey,List<Claim>> parse(File file) throws IOException {
+        TreeMap<ArtifactKey,List<Claim>> map = new TreeMap<>();
+        Document document = new Document();
+
+        try (JsonParser parser = factory.createParser(file)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+
+                    parser.nextToken();
+
+                    switch (name) {
+                    case "metadata":
+                        parseMetadata(parser, map);
+                        break;
+
+                    case "documentDescribes":
+                        parseDocumentDescribes(parser, document);
+                        break;
+
+                    case "packages":
+                        parsePackages(parser, document);
+                        break;
+
+                    case "relationships":
+                        parseRelationships(parser, document);
+                        break;
+
+                    default:
+                        parser.skipChildren();
+                        break;
+                    }
+                }
+            }
+        }
+
+        for (String id : document.getSubjects()) {
+            put(map, document.purls.get(id), document.claims.get(id));
+        }
+
+        return map;
+    }
+
+    private void parseMetadata(JsonParser parser, Map<ArtifactKey,List<Claim>> map) throws IOException {
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+
+                parser.nextToken();
+
+                if (name.equals("component")) {
+                    parseComponent(parser, map);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private void parseComponent(JsonParser parser, Map<ArtifactKey,List<Claim>> map) throws IOException {
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            String purl = null;
+            List<Claim> claims = new ArrayList<>();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+
+                parser.nextToken();
+
+                switch (name) {
+                case "purl":
+                    purl = parser.getValueAsString();
+                    break;
+
+                case "licenses":
+                    parseLicenses(parser, claims);
+                    break;
+
+                default:
+                    parser.skipChildren();
+                    break;
+                }
+            }
+
+            put(map, purl, claims);
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private void parseLicenses(JsonParser parser, List<Claim> claims) throws IOException {
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = parser.getCurrentName();
+
+                        parser.nextToken();
+
+                        if (name.equals("expression")) {
+                            add(claims, parser.getValueAsString(), null);
+                        } else if (name.equals("license")) {
+                            parseLicense(parser, claims);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private void parseLicense(JsonParser parser, List<Claim> claims) throws IOException {
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            String id = null;
+            String name = null;
+            String url = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+
+                parser.nextToken();
+
+                switch (field) {
+                case "id":
+                    id = parser.getValueAsString();
+                    break;
+
+                case "name":
+                    name = parser.getValueAsString();
+                    break;
+
+                case "url":
+                    url = parser.getValueAsString();
+                    break;
+
+                default:
+                    parser.skipChildren();
+                    break;
+                }
+            }
+
+            add(claims, isNotBlank(id) ? id : name, url);
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private void parseDocumentDescribes(JsonParser parser, Document document) throws IOException {
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                    document.describes.add(parser.getValueAsString());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private void parseRelationships(JsonParser parser, Document document) throws IOException {
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() == JsonToken.START_OBJECT) {
+                    String from = null;
+                    String type = null;
+                    String to = null;
+
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = parser.getCurrentName();
+
+                        parser.nextToken();
+
+                        switch (name) {
+                        case "spdxElementId":
+                            from = parser.getValueAsString();
+                            break;
+
+                        case "relationshipType":
+                            type = parser.getValueAsString();
+                            break;
+
+                        case "relatedSpdxElement":
+                            to = parser.getValueAsString();
+                            break;
+
+                        default:
+                            parser.skipChildren();
+                            break;
+                        }
+                    }
+
+                    if (isNotBlank(from) && isNotBlank(to)) {
+                        if ("DESCRIBES".equalsIgnoreCase(type)) {
+                            document.describes.add(to);
+                        } else if ("DESCRIBED_BY".equalsIgnoreCase(type)) {
+                            document.describes.add(from);
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private void parsePackages(JsonParser parser, Document document) throws IOException {
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() == JsonToken.START_OBJECT) {
+                    String id = null;
+                    String purl = null;
+                    String declared = null;
+                    String concluded = null;
+
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = parser.getCurrentName();
+
+                        parser.nextToken();
+
+                        switch (name) {
+                        case "SPDXID":
+                            id = parser.getValueAsString();
+                            break;
+
+                        case "licenseDeclared":
+                            declared = parser.getValueAsString();
+                            break;
+
+                        case "licenseConcluded":
+                            concluded = parser.getValueAsString();
+                            break;
+
+                        case "externalRefs":
+                            String locator = parseExternalRefs(parser);
+
+                            if (purl == null) {
+                                purl = locator;
+                            }
+                            break;
+
+                        default:
+                            parser.skipChildren();
+                            break;
+                        }
+                    }
+
+                    List<Claim> claims = new ArrayList<>();
+
+                    add(claims, declared, null);
+
+                    if (claims.isEmpty()) {
+                        add(claims, concluded, null);
+                    }
+
+                    if (isNotBlank(id)) {
+                        document.purls.putIfAbsent(id, purl);
+                        document.claims.putIfAbsent(id, claims);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private String parseExternalRefs(JsonParser parser) throws IOException {
+        String purl = null;
+
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() == JsonToken.START_OBJECT) {
+                    String type = null;
+                    String locator = null;
+
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = parser.getCurrentName();
+
+                        parser.nextToken();
+
+                        if (name.equals("referenceType")) {
+                            type = parser.getValueAsString();
+                        } else if (name.equals("referenceLocator")) {
+                            locator = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+
+                    if (purl == null && "purl".equalsIgnoreCase(type)) {
+                        purl = locator;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+
+        return purl;
+    }
+
+    private void add(List<Claim> claims, String id, String url) {
+        if (isNotBlank(id) && (id.trim().equalsIgnoreCase(NOASSERTION) || id.trim().equalsIgnoreCase(NONE))) {
+            id = null;
+        }
+
+        if (isNotBlank(id) || isNotBlank(url)) {
+            claims.add(new Claim(isNotBlank(id) ? id.trim() : null, isNotBlank(url) ? url.trim() : null));
+        }
+    }
+
+    private void put(Map<ArtifactKey,List<Claim>> map, String purl, List<Claim> claims) {
+        if (isNotBlank(purl) && claims != null && (! claims.isEmpty())) {
+            Matcher matcher = PURL.matcher(purl.trim());
+
+            if (matcher.matches()) {
+                ArtifactKey key =
+                    new ArtifactKey(decode(matcher.group("group")),
+                                    decode(matcher.group("artifact")),
+                                    decode(matcher.group("version")));
+
+                map.putIfAbsent(key, claims);
+            }
+        }
+    }
+
+    private String decode(String string) {
+        try {
+            string = URLDecoder.decode(string, UTF_8.name());
+        } catch (Exception exception) {
+        }
+
+        return string;
+    }
+
+    /*
+     * SPDX document packages (by SPDXID) and relationships collected while
+     * streaming; the subject is resolved once the document is read.
+     */
+    private static class Document {
+        private final Set<String> describes = new LinkedHashSet<>();
+        private final Map<String,String> purls = new LinkedHashMap<>();
+        private final Map<String,List<Claim>> claims = new LinkedHashMap<>();
+
+        public Set<String> getSubjects() {
+            Set<String> set = new LinkedHashSet<>(describes);
+
+            set.remove("SPDXRef-DOCUMENT");
+
+            return set;
+        }
+    }
+
+    /**
+     * SBOM license claim: An SPDX license ID, expression, or name and/or
+     * a license URL.
+     *
+     * {@bean.info}
+     */
+    @AllArgsConstructor @Getter @ToString
+    public static class Claim {
+        private final String id;
+        private final String url;
+    }
+}
@@ -0,0 +1,417 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Recorded HTTP exchange archive (a zip file with a JSON
+ * ({@code <key>.json}: method, URL, status, headers, and any exception)
+ * and a body ({@code <key>.body}) entry per request).  Recorded exchanges
+ * are replayed through an {@link HttpURLConnection} implementation so
+ * callers are unaware of the source.
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@ToString(of = { "file" })
+@Slf4j
+public class URLArchive {
+    private static final String JSON = ".json";
+    private static final String BODY = ".body";
+
+    private final File file;
+    private final Map<String,Exchange> exchanges = new ConcurrentSkipListMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Sole constructor.
+     *
+     * @param   file            The archive {@link File}.
+     */
+    public URLArchive(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Method to load the archive (if it exists).
+     *
+     * @throws  IOException     If the archive cannot be read.
+     */
+    public void load() throws IOException {
+        if (file.isFile()) {
+            Map<String,JsonNode> json = new TreeMap<>();
+            Map<String,byte[]> bodies = new TreeMap<>();
+
+            try (ZipInputStream in = new ZipInputStream(new FileInputStream(file))) {
+                ZipEntry entry = null;
+
+                while ((entry = in.getNextEntry()) != null) {
+                    String name = entry.getName();
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[8 * 1024];
+                    int count = 0;
+
+                    while ((count = in.read(buffer)) > 0) {
+                        out.write(buffer, 0, count);
+                    }
+
+                    if (name.endsWith(JSON)) {
+                        json.put(name.substring(0, name.length() - JSON.length()), mapper.readTree(out.toByteArray()));
+                    } else if (name.endsWith(BODY)) {
+                        bodies.put(name.substring(0, name.length() - BODY.length()), out.toByteArray());
+                    }
+                }
+            }
+
+            for (Map.Entry<String,JsonNode> entry : json.entrySet()) {
+                exchanges.put(entry.getKey(), Exchange.of(entry.getValue(), bodies.get(entry.getKey())));
+            }
+        }
+    }
+
+    /**
+     * Method to write the archive (if any exchange has been recorded since
+     * it was loaded).
+     */
+    public synchronized void flush() {
+        if (dirty.getAndSet(false)) {
+            File temporary = new File(file.getPath() + ".tmp");
+
+            try {
+                if (file.getAbsoluteFile().getParentFile() != null) {
+                    file.getAbsoluteFile().getParentFile().mkdirs();
+                }
+
+                try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(temporary))) {
+                    for (Map.Entry<String,Exchange> entry : exchanges.entrySet()) {
+                        out.putNextEntry(new ZipEntry(entry.getKey() + JSON));
+                        out.write(mapper.writerWithDefaultPrettyPrinter()
+                                  .writeValueAsBytes(entry.getValue().toJson(mapper)));
+                        out.closeEntry();
+                        out.putNextEntry(new ZipEntry(entry.getKey() + BODY));
+                        out.write(entry.getValue().getBody());
+                        out.closeEntry();
+                    }
+                }
+
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException exception) {
+                log.warn("Cannot write {}", file);
+            }
+        }
+    }
+
+    /**
+     * Method to get the replay {@link HttpURLConnection} for a recorded
+     * request.
+     *
+     * @param   method          The request method.
+     * @param   url             The {@link URL} ({@link String}
+     *                          representation).
+     *
+     * @return  The {@link HttpURLConnection} or {@code null} if the
+     *          request has not been recorded.
+     *
+     * @throws  IOException     If the {@link URL} is malformed.
+     */
+    public HttpURLConnection replay(String method, String url) throws IOException {
+        Exchange exchange = exchanges.get(keyOf(method, url));
+
+        return (exchange != null) ? new ReplayURLConnection(new URL(url), exchange) : null;
+    }
+
+    /**
+     * Method to perform and record a request.  The (decoded) body is read
+     * to at most {@code limit} bytes.
+     *
+     * @param   method          The request method.
+     * @param   connection      The live {@link HttpURLConnection} (not yet
+     *                          connected).
+     * @param   decoder         The {@link Decoder} to get the decoded
+     *                          (and bounded) body {@link InputStream}.
+     *
+     * @return  The replay {@link HttpURLConnection} for the recorded
+     *          exchange.
+     */
+    public HttpURLConnection record(String method, HttpURLConnection connection, Decoder decoder) {
+        String url = connection.getURL().toString();
+        int status = -1;
+        Map<String,List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        String exception = null;
+        String message = null;
+
+        try {
+            status = connection.getResponseCode();
+
+            for (Map.Entry<String,List<String>> entry : connection.getHeaderFields().entrySet()) {
+                if (entry.getKey() != null && (! entry.getKey().equalsIgnoreCase("Content-Encoding"))) {
+                    headers.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+                }
+            }
+
+            if ((! method.equalsIgnoreCase("HEAD")) && status < HttpURLConnection.HTTP_BAD_REQUEST) {
+                try (InputStream in = decoder.decode(connection)) {
+                    byte[] buffer = new byte[8 * 1024];
+                    int count = 0;
+
+                    while ((count = in.read(buffer)) > 0) {
+                        body.write(buffer, 0, count);
+                    }
+                }
+            }
+        } catch (IOException throwable) {
+            exception = throwable.getClass().getName();
+            message = throwable.getMessage();
+        } finally {
+            connection.disconnect();
+        }
+
+        Exchange exchange = new Exchange(method, url, status, headers, body.toByteArray(), exception, message);
+
+        exchanges.put(keyOf(method, url), exchange);
+        dirty.set(true);
+
+        return new ReplayURLConnection(connection.getURL(), exchange);
+    }
+
+    private static String keyOf(String method, String url) {
+        String key = null;
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            StringBuilder buffer = new StringBuilder();
+
+            for (byte b : digest.digest((method.toUpperCase() + " " + url).getBytes(UTF_8))) {
+                buffer.append(String.format("%02x", b));
+            }
+
+            key = buffer.toString();
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+
+        return key;
+    }
+
+    /**
+     * Body decoder {@link FunctionalInterface}.
+     */
+    @FunctionalInterface
+    public interface Decoder {
+
+        /**
+         * Method to get the decoded (and bounded) body
+         * {@link InputStream}.
+         *
+         * @param   connection      The {@link HttpURLConnection}.
+         *
+         * @return  The {@link InputStream}.
+         *
+         * @throws  IOException     If the body cannot be read.
+         */
+        InputStream decode(HttpURLConnection connection) throws IOException;
+    }
+
+    @AllArgsConstructor @Getter @ToString(exclude = { "body" })
+    private static class Exchange {
+        private final String method;
+        private final String url;
+        private final int status;
+        private final Map<String,List<String>> headers;
+        private final byte[] body;
+        private final String exception;
+        private final String message;
+
+        public static Exchange of(JsonNode node, byte[] body) {
+            Map<String,List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            Iterator<Map.Entry<String,JsonNode>> iterator = node.path("headers").fields();
+
+            while (iterator.hasNext()) {
+                Map.Entry<String,JsonNode> entry = iterator.next();
+                List<String> values = new ArrayList<>();
+
+                for (JsonNode value : entry.getValue()) {
+                    values.add(value.asText());
+                }
+
+                headers.put(entry.getKey(), values);
+            }
+
+            return new Exchange(node.path("method").asText(), node.path("url").asText(),
+                                node.path("status").asInt(-1), headers,
+                                (body != null) ? body : new byte[] { },
+                                node.hasNonNull("exception") ? node.get("exception").asText() : null,
+                                node.hasNonNull("message") ? node.get("message").asText() : null);
+        }
+
+        public JsonNode toJson(ObjectMapper mapper) {
+            ObjectNode node =
+                mapper.createObjectNode()
+                .put("method", method)
+                .put("url", url)
+                .put("status", status);
+            ObjectNode object = node.putObject("headers");
+
+            for (Map.Entry<String,List<String>> entry : headers.entrySet()) {
+                entry.getValue().forEach(t -> object.withArray(entry.getKey()).add(t));
+            }
+
+            if (exception != null) {
+                node.put("exception", exception).put("message", message);
+            }
+
+            return node;
+        }
+
+        public void rethrow() throws IOException {
+            if (exception != null) {
+                IOException throwable = null;
+
+                if (exception.equals(UnknownHostException.class.getName())) {
+                    throwable = new UnknownHostException(message);
+                } else if (exception.equals(ConnectException.class.getName())) {
+                    throwable = new ConnectException(message);
+                } else if (exception.equals(SocketTimeoutException.class.getName())) {
+                    throwable = new SocketTimeoutException(message);
+                } else if (exception.equals(FileNotFoundException.class.getName())) {
+                    throwable = new FileNotFoundException(message);
+                } else {
+                    throwable = new IOException(message);
+                }
+
+                throw throwable;
+            }
+        }
+    }
+
+    private static class ReplayURLConnection extends HttpURLConnection {
+        private final Exchange exchange;
+        private final List<String> keys = new ArrayList<>();
+        private final List<String> values = new ArrayList<>();
+
+        public ReplayURLConnection(URL url, Exchange exchange) {
+            super(url);
+
+            this.exchange = exchange;
+
+            try {
+                setRequestMethod(exchange.getMethod());
+            } catch (Exception exception) {
+            }
+
+            for (Map.Entry<String,List<String>> entry : exchange.getHeaders().entrySet()) {
+                for (String value : entry.getValue()) {
+                    keys.add(entry.getKey());
+                    values.add(value);
+                }
+            }
+        }
+
+        @Override
+        public void connect() throws IOException {
+            exchange.rethrow();
+            connected = true;
+        }
+
+        @Override
+        public void disconnect() { }
+
+        @Override
+        public boolean usingProxy() { return false; }
+
+        @Override
+        public int getResponseCode() throws IOException {
+            connect();
+
+            return exchange.getStatus();
+        }
+
+        @Override
+        public Map<String,List<String>> getHeaderFields() {
+            return Collections.unmodifiableMap(exchange.getHeaders());
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            List<String> list = (name != null) ? exchange.getHeaders().get(name) : null;
+
+            return (list != null && (! list.isEmpty())) ? list.get(list.size() - 1) : null;
+        }
+
+        @Override
+        public String getHeaderFieldKey(int n) {
+            return (n >= 0 && n < keys.size()) ? keys.get(n) : null;
+        }
+
+        @Override
+        public String getHeaderField(int n) {
+            return (n >= 0 && n < values.size()) ? values.get(n) : null;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            int status = getResponseCode();
+
+            if (status == HTTP_NOT_FOUND || status == HTTP_GONE) {
+                throw new FileNotFoundException(url.toString());
+            } else if (status >= HTTP_BAD_REQUEST) {
+                throw new IOException("Server returned HTTP response code: " + status + " for URL: " + url);
+            }
+
+            return new ByteArrayInputStream(exchange.getBody());
+        }
+    }
+}
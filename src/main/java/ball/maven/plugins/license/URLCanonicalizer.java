@@ -0,0 +1,143 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import static lombok.AccessLevel.PRIVATE;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * {@link java.net.URL} canonicalization for license document look-ups.
+ * {@code http} and {@code https} {@link java.net.URL}s that differ only
+ * by:
+ * <ul>
+ *   <li>scheme,</li>
+ *   <li>a {@code www.} host prefix or a default port,</li>
+ *   <li>a trailing slash,</li>
+ *   <li>a {@code .txt}, {@code .html}, {@code .htm}, or {@code .php}
+ *       suffix,</li>
+ *   <li>a {@code /license/} versus {@code /licenses/} path segment,</li>
+ *   <li>a fragment, or</li>
+ *   <li>tracking query parameters ({@code utm_*}, {@code fbclid}, etc.)</li>
+ * </ul>
+ * share a canonical key.  Other {@link java.net.URL}s are returned
+ * trimmed.
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@NoArgsConstructor(access = PRIVATE) @ToString
+public abstract class URLCanonicalizer {
+    private static final Pattern SCHEME = Pattern.compile("(?i)https?");
+    private static final Pattern SUFFIX = Pattern.compile("(?i)[.](txt|html?|php)$");
+    private static final Pattern NOISE =
+        Pattern.compile("(?i)(utm_[^=]*|fbclid|gclid|_ga)(=.*)?");
+
+    /**
+     * Static method to canonicalize a {@link java.net.URL}.
+     *
+     * @param   url             The {@link java.net.URL} ({@link String}
+     *                          representation).
+     *
+     * @return  The canonical key.
+     */
+    public static String canonicalize(String url) {
+        String key = (url != null) ? url.trim() : null;
+
+        if (key != null) {
+            try {
+                URI uri = new URI(key);
+
+                if (uri.getScheme() != null && SCHEME.matcher(uri.getScheme()).matches()
+                    && uri.getRawAuthority() != null) {
+                    key = canonicalize(uri);
+                }
+            } catch (Exception exception) {
+            }
+        }
+
+        return key;
+    }
+
+    private static String canonicalize(URI uri) {
+        StringBuilder buffer = new StringBuilder("http://");
+        String host = (uri.getHost() != null) ? uri.getHost() : uri.getRawAuthority();
+
+        host = host.toLowerCase(Locale.ROOT);
+
+        if (host.startsWith("www.")) {
+            host = host.substring(4);
+        }
+
+        buffer.append(host);
+
+        int port = uri.getPort();
+
+        if (port > 0 && port != 80 && port != 443) {
+            buffer.append(":").append(port);
+        }
+
+        String[] segments = ((uri.getRawPath() != null) ? uri.getRawPath() : "").split("/");
+        List<String> path = new ArrayList<>();
+
+        for (String segment : segments) {
+            if (! segment.isEmpty()) {
+                path.add(segment);
+            }
+        }
+
+        for (int i = 0; i < path.size(); i += 1) {
+            String segment = path.get(i);
+
+            if (i < path.size() - 1) {
+                if (segment.equalsIgnoreCase("license")) {
+                    segment = "licenses";
+                }
+            } else {
+                segment = SUFFIX.matcher(segment).replaceFirst("");
+            }
+
+            buffer.append("/").append(segment);
+        }
+
+        String query = uri.getRawQuery();
+
+        if (! isBlank(query)) {
+            List<String> parameters = new ArrayList<>();
+
+            for (String parameter : query.split("&")) {
+                if ((! parameter.isEmpty()) && (! NOISE.matcher(parameter).matches())) {
+                    parameters.add(parameter);
+                }
+            }
+
+            if (! parameters.isEmpty()) {
+                buffer.append("?").append(String.join("&", parameters));
+            }
+        }
+
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,254 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.net.ssl.SSLException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Persistent canonical {@link java.net.URL} ({@link String}
+ * representation) to {@link Failure} {@link java.util.Map}.  A
+ * {@link java.net.URL} that has failed is not retried until its
+ * {@link Failure} expires.  The time-to-live starts at the
+ * {@link Type#getTTL()} for the failure type and doubles with each
+ * consecutive failure (to a maximum of {@link #MAXIMUM_TTL}).  Expired
+ * {@link Failure}s are kept (so the next failure continues the back-off)
+ * until they have been expired for {@link #MAXIMUM_TTL}.
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@Named @Singleton
+@Slf4j
+public class URLFailureCache extends ConcurrentSkipListMap<String,URLFailureCache.Failure> {
+    private static final long serialVersionUID = -4410868367553802312L;
+
+    private static final String FAILURES = "url-license-failures.xml";
+
+    /**
+     * Maximum {@link Failure} time-to-live (milliseconds).
+     */
+    public static final long MAXIMUM_TTL = TimeUnit.DAYS.toMillis(90);
+
+    /** @serial */ private final File file;
+    /** @serial */ private final AtomicBoolean dirty = new AtomicBoolean(false);
+
+    /**
+     * Sole constructor.
+     *
+     * @param   session         The injected {@link MavenSession}.
+     */
+    @Inject
+    public URLFailureCache(MavenSession session) {
+        super(String.CASE_INSENSITIVE_ORDER);
+
+        this.file = new File(Objects.requireNonNull(session).getLocalRepository().getBasedir(), FAILURES);
+    }
+
+    protected void load() {
+        if (file.exists()) {
+            Properties properties = new Properties();
+
+            try (FileInputStream in = new FileInputStream(file)) {
+                properties.loadFromXML(in);
+            } catch (IOException exception) {
+                log.error("Cannot read {}", file);
+            }
+
+            long horizon = System.currentTimeMillis() - MAXIMUM_TTL;
+
+            for (String key : properties.stringPropertyNames()) {
+                try {
+                    Failure failure = Failure.parse(properties.getProperty(key));
+                    /*
+                     * Expired failures are retained (isFailed() ignores
+                     * them) so Failure.next() sees the consecutive count.
+                     */
+                    if (failure.getExpires() > horizon) {
+                        put(key, failure);
+                    } else {
+                        dirty.set(true);
+                    }
+                } catch (Exception exception) {
+                    log.debug("{}: {}", key, exception.getMessage(), exception);
+                }
+            }
+        }
+    }
+
+    protected synchronized void flush() {
+        if (dirty.getAndSet(false)) {
+            Properties properties = new Properties();
+
+            for (Map.Entry<String,Failure> entry : entrySet()) {
+                properties.setProperty(entry.getKey(), entry.getValue().toString());
+            }
+
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                properties.storeToXML(out, file.getName());
+            } catch (IOException exception) {
+                log.warn("Cannot write {}", file);
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        load();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush()));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+        log.debug("{}.size() = {}", getClass().getSimpleName(), size());
+    }
+
+    /**
+     * Method to test if a {@link java.net.URL} has failed and the
+     * {@link Failure} has not expired.
+     *
+     * @param   url             The {@link java.net.URL} ({@link String}
+     *                          representation).
+     *
+     * @return  {@code true} if the {@link java.net.URL} should not be
+     *          retried; {@code false} otherwise.
+     */
+    public boolean isFailed(String url) {
+        Failure failure = get(URLCanonicalizer.canonicalize(url));
+
+        return (failure != null && failure.getExpires() > System.currentTimeMillis());
+    }
+
+    /**
+     * Method to record a failure.
+     *
+     * @param   url             The {@link java.net.URL} ({@link String}
+     *                          representation).
+     * @param   exception       The cause of the failure.
+     */
+    public void failed(String url, Exception exception) {
+        Type type = Type.of(exception);
+
+        compute(URLCanonicalizer.canonicalize(url), (k, v) -> Failure.next(v, type));
+        dirty.set(true);
+    }
+
+    /**
+     * Method to record a success (clearing any {@link Failure}).
+     *
+     * @param   url             The {@link java.net.URL} ({@link String}
+     *                          representation).
+     */
+    public void succeeded(String url) {
+        if (remove(URLCanonicalizer.canonicalize(url)) != null) {
+            dirty.set(true);
+        }
+    }
+
+    /**
+     * Failure type.
+     */
+    public enum Type {
+        /** HTTP 404 or 410 */
+        NOT_FOUND(TimeUnit.DAYS.toMillis(7)),
+        /** Unknown host, connection refused, or timed-out */
+        UNREACHABLE(TimeUnit.DAYS.toMillis(1)),
+        /** Any other error */
+        ERROR(TimeUnit.HOURS.toMillis(6));
+
+        @Getter private final long TTL;
+
+        Type(long TTL) { this.TTL = TTL; }
+
+        /**
+         * Static method to classify an {@link Exception}.
+         *
+         * @param   exception       The {@link Exception}.
+         *
+         * @return  The {@link Type}.
+         */
+        public static Type of(Exception exception) {
+            Type type = ERROR;
+
+            if (exception instanceof FileNotFoundException) {
+                type = NOT_FOUND;
+            } else if (exception instanceof UnknownHostException
+                       || exception instanceof ConnectException
+                       || exception instanceof NoRouteToHostException
+                       || exception instanceof SocketTimeoutException
+                       || exception instanceof SSLException) {
+                type = UNREACHABLE;
+            }
+
+            return type;
+        }
+    }
+
+    /**
+     * {@link URLFailureCache} entry.
+     *
+     * {@bean.info}
+     */
+    @AllArgsConstructor @Getter
+    public static class Failure {
+        private final Type type;
+        private final int count;
+        private final long expires;
+
+        private static Failure next(Failure previous, Type type) {
+            int count = (previous != null && previous.getType() == type) ? previous.getCount() + 1 : 1;
+            long ttl = Math.min(type.getTTL() << Math.min(count - 1, 16), MAXIMUM_TTL);
+
+            return new Failure(type, count, System.currentTimeMillis() + ttl);
+        }
+
+        private static Failure parse(String string) {
+            String[] fields = string.trim().split("[\\p{Space}]+");
+
+            return new Failure(Type.valueOf(fields[0]), Integer.parseInt(fields[1]), Long.parseLong(fields[2]));
+        }
+
+        @Override
+        public String toString() { return String.join(" ", type.name(), String.valueOf(count), String.valueOf(expires)); }
+    }
+}
@@ -0,0 +1,667 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSession;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.execution.MavenSession;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * License document {@link URLConnection} factory and bounded body reader.
+ * Requests {@code gzip} (or {@code deflate}) content encoding, limits the
+ * decoded body to {@code license.url.maximumSize} bytes (session user or
+ * system property; default 1 MiB), and rejects bodies that appear to be
+ * binary.
+ * <p>
+ * If {@code license.url.mode} is {@code record}, every HTTP exchange is
+ * captured to the {@code license.url.archive} zip file (default
+ * {@code license-url-archive.zip} in the execution root directory).  If
+ * {@code replay}, exchanges are served from that archive and any
+ * unrecorded HTTP request throws {@link UnrecordedURLException}.
+ * </p>
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@Named @Singleton
+@Slf4j
+public class URLFetcher {
+    private static final String MAXIMUM_SIZE = "license.url.maximumSize";
+    private static final long DEFAULT_MAXIMUM_SIZE = 1024 * 1024;
+    private static final String MODE = "license.url.mode";
+    private static final String ARCHIVE = "license.url.archive";
+    private static final String DEFAULT_ARCHIVE = "license-url-archive.zip";
+    private static final String MAXIMUM_CONCURRENCY = "license.url.maximumConcurrency";
+    private static final int DEFAULT_MAXIMUM_CONCURRENCY = 64;
+    private static final int INITIAL_HOST_CONCURRENCY = 4;
+    private static final int MAXIMUM_LIMITS = 256;
+
+    private static final HostnameVerifier NONE = new HostnameVerifierImpl();
+
+    private static final Pattern ALTERNATE =
+        Pattern.compile("<([^>]*)>;(?=[^,]*rel=\"?alternate\"?)(?=[^,]*type=\"?text/plain)");
+
+    @Getter private final long maximumSize;
+    @Getter private final Mode mode;
+    private final URLArchive archive;
+    private final int maximumConcurrency;
+    private final Semaphore limit;
+    private final LinkedHashMap<String,AdaptiveLimit> limits = new LinkedHashMap<>(16, 0.75f, true);
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Sole constructor.
+     *
+     * @param   session         The injected {@link MavenSession}.
+     */
+    @Inject
+    public URLFetcher(MavenSession session) {
+        String value = getProperty(session, MAXIMUM_SIZE);
+        long maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+        if (isNotBlank(value)) {
+            try {
+                maximumSize = Long.parseLong(value.trim());
+            } catch (NumberFormatException exception) {
+                log.warn("{}: Invalid {} value '{}'", getClass().getSimpleName(), MAXIMUM_SIZE, value);
+            }
+        }
+
+        this.maximumSize = maximumSize;
+
+        value = getProperty(session, MODE);
+        this.mode = isNotBlank(value) ? Mode.valueOf(value.trim().toUpperCase(Locale.ROOT)) : Mode.LIVE;
+
+        value = getProperty(session, ARCHIVE);
+
+        File file = new File(isNotBlank(value) ? value.trim() : DEFAULT_ARCHIVE);
+
+        if (! file.isAbsolute()) {
+            file = new File(session.getExecutionRootDirectory(), file.getPath());
+        }
+
+        this.archive = (mode != Mode.LIVE) ? new URLArchive(file) : null;
+
+        value = getProperty(session, MAXIMUM_CONCURRENCY);
+
+        int maximumConcurrency = DEFAULT_MAXIMUM_CONCURRENCY;
+
+        if (isNotBlank(value)) {
+            try {
+                maximumConcurrency = Math.max(1, Integer.parseInt(value.trim()));
+            } catch (NumberFormatException exception) {
+                log.warn("{}: Invalid {} value '{}'", getClass().getSimpleName(), MAXIMUM_CONCURRENCY, value);
+            }
+        }
+
+        this.maximumConcurrency = maximumConcurrency;
+        this.limit = new Semaphore(maximumConcurrency);
+        this.executor =
+            new ThreadPoolExecutor(maximumConcurrency, maximumConcurrency,
+                                   60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    private static String getProperty(MavenSession session, String name) {
+        String value = session.getUserProperties().getProperty(name);
+
+        if (value == null) {
+            value = session.getSystemProperties().getProperty(name);
+        }
+
+        return value;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (archive != null) {
+            try {
+                archive.load();
+            } catch (IOException exception) {
+                throw new IllegalStateException("Cannot read " + archive, exception);
+            }
+
+            if (mode == Mode.RECORD) {
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> archive.flush()));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (mode == Mode.RECORD) {
+            archive.flush();
+        }
+
+        executor.shutdown();
+        synchronized (limits) {
+            log.debug("{}: limits = {}", getClass().getSimpleName(), limits);
+        }
+    }
+
+    /**
+     * Method to run network-bound tasks.  The pool is sized to
+     * {@code license.url.maximumConcurrency} (session user or system
+     * property; default 64) and the actual concurrency is governed by
+     * {@link #limit(String,Operation,Task)}.
+     *
+     * @param   <T>             The task result type.
+     * @param   tasks           The {@link Callable} tasks.
+     *
+     * @return  The {@link Future}s.
+     *
+     * @throws  InterruptedException
+     *                          If interrupted while waiting.
+     */
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        return executor.invokeAll(tasks);
+    }
+
+    /**
+     * Method to perform a network operation under the global limit
+     * ({@code license.url.maximumConcurrency}) and the host's
+     * {@link AdaptiveLimit} for the {@link Operation}.  Each host and
+     * {@link Operation} has its own limit and latency baseline which are
+     * adjusted from the operation's latency and outcome:  HTTP 429 and 503
+     * responses and connect and read time-outs are overload signals.  At
+     * most 256 (host, {@link Operation}) limits are retained (idle limits
+     * are evicted least-recently-used first).  Operations on non-HTTP
+     * {@link URL}s or in {@link Mode#REPLAY} mode are not limited.
+     *
+     * @param   <T>             The result type.
+     * @param   url             The {@link URL} ({@link String}
+     *                          representation).
+     * @param   operation       The {@link Operation}.
+     * @param   task            The {@link Task}.
+     *
+     * @return  The {@link Task} result.
+     *
+     * @throws  IOException     If the {@link Task} throws
+     *                          {@link IOException} or is interrupted
+     *                          waiting for a permit.
+     */
+    public <T> T limit(String url, Operation operation, Task<T> task) throws IOException {
+        T result = null;
+        String host = null;
+
+        try {
+            host = (mode != Mode.REPLAY && url.matches("(?i)https?:.*")) ? new URL(url).getHost() : null;
+        } catch (IOException exception) {
+        }
+
+        if (isNotBlank(host)) {
+            AdaptiveLimit limit = getLimit(host, operation);
+            Permit permit = new Permit();
+            AdaptiveLimit.Outcome outcome = AdaptiveLimit.Outcome.ERROR;
+            long start = 0;
+
+            try {
+                limit.acquire();
+
+                try {
+                    this.limit.acquire();
+                } catch (InterruptedException exception) {
+                    limit.release(0, AdaptiveLimit.Outcome.ERROR);
+                    throw exception;
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(url);
+            }
+
+            try {
+                start = System.nanoTime();
+                result = task.apply(permit);
+                outcome = permit.getOutcome();
+            } catch (SocketTimeoutException | ConnectException exception) {
+                outcome = AdaptiveLimit.Outcome.OVERLOAD;
+                throw exception;
+            } finally {
+                long nanos = System.nanoTime() - start;
+
+                this.limit.release();
+                limit.release(nanos, outcome);
+            }
+        } else {
+            result = task.apply(new Permit());
+        }
+
+        return result;
+    }
+
+    private AdaptiveLimit getLimit(String host, Operation operation) {
+        String key = host.toLowerCase(Locale.ROOT) + " " + operation;
+        AdaptiveLimit limit = null;
+
+        synchronized (limits) {
+            limit = limits.get(key);
+
+            if (limit == null) {
+                limit = new AdaptiveLimit(INITIAL_HOST_CONCURRENCY, 1, maximumConcurrency);
+                limits.put(key, limit);
+
+                Iterator<AdaptiveLimit> iterator = limits.values().iterator();
+
+                while (limits.size() > MAXIMUM_LIMITS && iterator.hasNext()) {
+                    if (iterator.next().isIdle()) {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+
+        return limit;
+    }
+
+    /**
+     * Method to open a {@link URLConnection}.  Redirects are not followed.
+     *
+     * @param   url             The {@link URL} ({@link String}
+     *                          representation).
+     *
+     * @return  The {@link URLConnection}.
+     *
+     * @throws  IOException     If the {@link URLConnection} cannot be
+     *                          opened.
+     */
+    public URLConnection open(String url) throws IOException {
+        return open(url, "GET");
+    }
+
+    /**
+     * Method to open a {@link URLConnection} with the specified request
+     * method (ignored if not HTTP).  Redirects are not followed.
+     *
+     * @param   url             The {@link URL} ({@link String}
+     *                          representation).
+     * @param   method          The request method (e.g., {@code HEAD}).
+     *
+     * @return  The {@link URLConnection}.
+     *
+     * @throws  IOException     If the {@link URLConnection} cannot be
+     *                          opened.
+     */
+    public URLConnection open(String url, String method) throws IOException {
+        URLConnection connection = null;
+
+        switch (mode) {
+        case REPLAY:
+            connection = archive.replay(method, url);
+
+            if (connection == null) {
+                if (url.matches("(?i)https?:.*")) {
+                    throw new UnrecordedURLException(method, url);
+                }
+
+                connection = connect(url, method);
+            }
+            break;
+
+        case RECORD:
+            connection = connect(url, method);
+
+            if (connection instanceof HttpURLConnection) {
+                connection = archive.record(method, (HttpURLConnection) connection, t -> getInputStream(t));
+            }
+            break;
+
+        default:
+            connection = connect(url, method);
+            break;
+        }
+
+        return connection;
+    }
+
+    private URLConnection connect(String url, String method) throws IOException {
+        URLConnection connection = new URL(url).openConnection();
+
+        if (connection instanceof HttpURLConnection) {
+            ((HttpURLConnection) connection).setRequestMethod(method);
+            ((HttpURLConnection) connection).setInstanceFollowRedirects(false);
+            connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+            connection.setRequestProperty("Accept", "text/plain, text/html;q=0.9, */*;q=0.5");
+        }
+
+        if (connection instanceof HttpsURLConnection) {
+            ((HttpsURLConnection) connection).setHostnameVerifier(NONE);
+        }
+
+        return connection;
+    }
+
+    /**
+     * Method to get the {@code text/plain} alternate {@link URL} (if any)
+     * advertised in the response {@code Link} header.
+     *
+     * @param   connection      The {@link URLConnection}.
+     *
+     * @return  The alternate {@link URL} ({@link String}
+     *          representation) or {@code null}.
+     */
+    public String getAlternateURL(URLConnection connection) {
+        String url = null;
+        List<String> list = connection.getHeaderFields().get("Link");
+
+        if (list != null) {
+            for (String link : list) {
+                Matcher matcher = ALTERNATE.matcher(link);
+
+                if (matcher.find() && isNotBlank(matcher.group(1))) {
+                    try {
+                        url = connection.getURL().toURI().resolve(matcher.group(1).trim()).toASCIIString();
+                        break;
+                    } catch (Exception exception) {
+                        log.debug("{}", exception.getMessage(), exception);
+                    }
+                }
+            }
+        }
+
+        return url;
+    }
+
+    /**
+     * Method to get the decoded (and bounded) body {@link InputStream}.
+     * The returned {@link InputStream} reports end-of-file once
+     * {@link #getMaximumSize()} bytes have been read.
+     *
+     * @param   connection      The {@link URLConnection}.
+     *
+     * @return  The {@link InputStream}.
+     *
+     * @throws  IOException     If the body cannot be read.
+     */
+    public InputStream getInputStream(URLConnection connection) throws IOException {
+        InputStream in = connection.getInputStream();
+        String encoding = connection.getContentEncoding();
+
+        if (encoding != null) {
+            switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip":
+            case "x-gzip":
+                in = new GZIPInputStream(in);
+                break;
+
+            case "deflate":
+                in = new InflaterInputStream(in);
+                break;
+
+            default:
+                break;
+            }
+        }
+
+        return new BoundedInputStream(in, maximumSize, connection.getURL());
+    }
+
+    /**
+     * Method to read the body as text.
+     *
+     * @param   connection      The {@link URLConnection}.
+     * @param   charset         The {@link Charset}.
+     *
+     * @return  The text or {@code null} if the body appears to be binary.
+     *
+     * @throws  IOException     If the body cannot be read.
+     */
+    public String getText(URLConnection connection, Charset charset) throws IOException {
+        String text = null;
+
+        try (InputStream in = getInputStream(connection)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8 * 1024];
+            boolean binary = false;
+            int count = 0;
+
+            while ((! binary) && (count = in.read(buffer)) > 0) {
+                if (out.size() < buffer.length) {
+                    for (int i = 0; i < count; i += 1) {
+                        if (buffer[i] == 0) {
+                            binary = true;
+                            break;
+                        }
+                    }
+                }
+
+                out.write(buffer, 0, count);
+            }
+
+            if (binary) {
+                log.debug("Binary content: {}", connection.getURL());
+            } else {
+                text = new String(out.toByteArray(), charset);
+            }
+        }
+
+        return text;
+    }
+
+    private static class BoundedInputStream extends FilterInputStream {
+        private final long limit;
+        private final URL url;
+        private long count = 0;
+
+        public BoundedInputStream(InputStream in, long limit, URL url) {
+            super(Objects.requireNonNull(in));
+
+            this.limit = limit;
+            this.url = url;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = -1;
+
+            if (count < limit) {
+                value = super.read();
+
+                if (value >= 0) {
+                    count += 1;
+                }
+            } else {
+                truncated();
+            }
+
+            return value;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int value = -1;
+
+            if (count < limit) {
+                value = super.read(bytes, offset, (int) Math.min(length, limit - count));
+
+                if (value > 0) {
+                    count += value;
+                }
+            } else {
+                truncated();
+            }
+
+            return value;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long value = super.skip(Math.min(n, Math.max(0, limit - count)));
+
+            count += value;
+
+            return value;
+        }
+
+        @Override
+        public boolean markSupported() { return false; }
+
+        private void truncated() {
+            if (count == limit) {
+                log.debug("Truncated at {} bytes: {}", limit, url);
+                count += 1;
+            }
+        }
+    }
+
+    /**
+     * Network operation {@link FunctionalInterface}.
+     *
+     * @param   <T>             The result type.
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+
+        /**
+         * Method to perform the operation.
+         *
+         * @param   permit          The {@link Permit} (to report the
+         *                          HTTP status).
+         *
+         * @return  The result.
+         *
+         * @throws  IOException     If the operation fails.
+         */
+        T apply(Permit permit) throws IOException;
+    }
+
+    /**
+     * {@link #limit(String,Operation,Task)} permit.
+     */
+    @NoArgsConstructor @ToString
+    public static class Permit {
+        private int status = -1;
+
+        /**
+         * Method to report the HTTP status.
+         *
+         * @param   status          The HTTP status.
+         *
+         * @return  {@code status}
+         */
+        public int status(int status) {
+            this.status = status;
+
+            return status;
+        }
+
+        private AdaptiveLimit.Outcome getOutcome() {
+            AdaptiveLimit.Outcome outcome = AdaptiveLimit.Outcome.SUCCESS;
+
+            if (status == 429 || status == HttpURLConnection.HTTP_UNAVAILABLE) {
+                outcome = AdaptiveLimit.Outcome.OVERLOAD;
+            }
+
+            return outcome;
+        }
+    }
+
+    /**
+     * {@link #limit(String,Operation,Task)} operation.  Each has its own
+     * {@link AdaptiveLimit} (and latency baseline) per host.
+     */
+    public enum Operation {
+        /** {@code HEAD} request */
+        HEAD,
+        /** {@code GET} request (to the response headers) */
+        GET,
+        /** Response body read */
+        BODY
+    }
+
+    /**
+     * Fetch mode.
+     */
+    public enum Mode { LIVE, RECORD, REPLAY }
+
+    /**
+     * {@link RuntimeException} thrown in {@link Mode#REPLAY REPLAY} mode for
+     * an HTTP request that is not in the archive.  It is not an
+     * {@link IOException} so it is not handled as a fetch failure.
+     *
+     * {@bean.info}
+     */
+    @Getter
+    public static class UnrecordedURLException extends RuntimeException {
+        private static final long serialVersionUID = 5393128717497468917L;
+
+        /** @serial */ private final String method;
+        /** @serial */ private final String url;
+
+        /**
+         * Sole constructor.
+         *
+         * @param   method          The request method.
+         * @param   url             The {@link URL} ({@link String}
+         *                          representation).
+         */
+        public UnrecordedURLException(String method, String url) {
+            super("Unrecorded URL: " + method + " " + url);
+
+            this.method = method;
+            this.url = url;
+        }
+    }
+
+    @NoArgsConstructor @ToString
+    private static class HostnameVerifierImpl implements HostnameVerifier {
+        @Override
+        public boolean verify(String hostname, SSLSession session) {
+            return true;
+        }
+    }
+}
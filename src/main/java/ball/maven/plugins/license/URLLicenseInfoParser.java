@@ -19,23 +19,31 @@ package ball.maven.plugins.license;
  * ##########################################################################
  */
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
-import java.util.Scanner;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import javax.annotation.PostConstruct;
@@ -43,26 +51,16 @@ import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
-import javax.net.ssl.HostnameVerifier;
-import javax.net.ssl.HttpsURLConnection;
-import javax.net.ssl.SSLSession;
-import lombok.NoArgsConstructor;
-import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.entity.ContentType;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.apache.maven.execution.MavenSession;
 import org.spdx.rdfparser.license.AnyLicenseInfo;
 import org.spdx.rdfparser.license.ExtractedLicenseInfo;
-import org.spdx.rdfparser.license.License;
-import org.spdx.rdfparser.license.LicenseInfoFactory;
+import org.spdx.rdfparser.license.LicenseSet;
 
 import static ball.maven.plugins.license.LicenseUtilityMethods.isFullySpdxListed;
 import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.apache.commons.lang3.StringUtils.isBlank;
@@ -73,6 +71,22 @@ import static org.apache.http.entity.ContentType.TEXT_PLAIN;
  * {@link URL} ({@link String} representation) to {@link AnyLicenseInfo}
  * {@link java.util.Map} implementation.  The {@link #get(Object)} method
  * transparently calculates and caches any value.
+ * <p>
+ * Values that retain document text are weighed against a
+ * {@link CacheBudget}.  Least-recently-used values over budget are spilled
+ * to a temporary file (as {@link LicenseInfoJson}) and are transparently
+ * restored by {@link #get(Object)} rather than fetched again.  The spill
+ * is deliberately not written to the local repository: Only URL
+ * {@link URLFailureCache failures} (and, in {@link ArtifactLicenseCatalog},
+ * the per-artifact results computed from these values) are persisted, and
+ * a persisted copy of a fetched document would outlive the build and
+ * mask changes to the document.  Spill files are deleted when restored
+ * and by {@link #destroy()}.
+ * </p>
+ * <p>
+ * Known license document URLs are served from the build-time generated
+ * {@link URLSeedTable} and materialized on first lookup.
+ * </p>
  *
  * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
  */
@@ -81,100 +95,366 @@ import static org.apache.http.entity.ContentType.TEXT_PLAIN;
 public class URLLicenseInfoParser extends ConcurrentSkipListMap<String,AnyLicenseInfo> implements DefaultMethods {
     private static final long serialVersionUID = -1086861055455360074L;
 
-    private static final HostnameVerifier NONE = new HostnameVerifierImpl();
-
     private static final Set<Integer> REDIRECT_CODES =
         Stream.of(HttpURLConnection.HTTP_MOVED_TEMP,
                   HttpURLConnection.HTTP_MOVED_PERM,
                   HttpURLConnection.HTTP_SEE_OTHER)
         .collect(toSet());
 
+    private static final int MAXIMUM_HOPS = 8;
+
     private static final Pattern CANONICAL = Pattern.compile("<([^>]*)>; rel=\"canonical\"");
 
     /** @serial */ private final LicenseMap map;
-    /** @serial */ private final Map<Pattern,String> redirects;
+    /** @serial */ private final URLFailureCache failures;
+    /** @serial */ private final URLFetcher fetcher;
+    /** @serial */ private final URLPatternIndex patterns = new URLPatternIndex();
+    /** @serial */ private final HTMLTextExtractor extractor = new HTMLTextExtractor();
+    /** @serial */ private final URLSeedTable seeds;
+    /** @serial */ private final ConcurrentSkipListMap<String,AnyLicenseInfo> expressions =
+        new ConcurrentSkipListMap<>();
+    /** @serial */ private final CacheBudget<String> budget;
+    /** @serial */ private final ConcurrentSkipListMap<String,File> spilled =
+        new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+    /** @serial */ private final ObjectMapper mapper = new ObjectMapper();
+    /** @serial */ private File directory = null;
 
     /**
      * Sole constructor.
      *
+     * @param   session         The injected {@link MavenSession}.
      * @param   map             The injected {@link LicenseMap}.
+     * @param   failures        The injected {@link URLFailureCache}.
+     * @param   fetcher         The injected {@link URLFetcher}.
      */
     @Inject
-    public URLLicenseInfoParser(LicenseMap map) {
+    public URLLicenseInfoParser(MavenSession session, LicenseMap map, URLFailureCache failures, URLFetcher fetcher) {
         super(String.CASE_INSENSITIVE_ORDER);
 
         this.map = Objects.requireNonNull(map);
+        this.failures = Objects.requireNonNull(failures);
+        this.fetcher = Objects.requireNonNull(fetcher);
+        this.budget = new CacheBudget<>(Objects.requireNonNull(session));
 
         try {
-            for (AnyLicenseInfo value : map.values()) {
-                if (value instanceof License) {
-                    String id = ((License) value).getLicenseId();
+            Properties seeds = getXMLProperties("seeds");
 
-                    put(String.format("https://opensource.org/licenses/%s", id), value);
-                    put(String.format("https://spdx.org/licenses/%s.html", id), value);
+            this.seeds = URLSeedTable.load(map, seeds);
+
+            for (String id : seeds.stringPropertyNames()) {
+                AnyLicenseInfo value = null;
+
+                for (String url : seeds.getProperty(id).split("[\\p{Space}]+")) {
+                    if (url.endsWith("*")) {
+                        if (value == null) {
+                            value = LicenseExpressionCache.parse(id);
+
+                            if (! isFullySpdxListed(value)) {
+                                throw new IllegalArgumentException(id);
+                            }
+                        }
+
+                        patterns.putSeed(url, value);
+                    }
                 }
             }
 
-            for (JsonNode node : LicenseMap.LICENSES_FULL_JSON.at("/licenses")) {
-                AnyLicenseInfo value = map.get(node.at("/identifiers/spdx/0").asText());
+            for (Map.Entry<Object,Object> entry : getXMLProperties("redirects").entrySet()) {
+                patterns.putRedirect(Pattern.compile(entry.getKey().toString()),
+                                     entry.getValue().toString().trim());
+            }
+        } catch (Exception exception) {
+            log.error("{}", exception.getMessage(), exception);
+            throw new ExceptionInInitializerError(exception);
+        }
+    }
 
-                if (value != null) {
-                    for (JsonNode uri : node.at("/uris")) {
-                        String key = uri.asText();
+    @PostConstruct
+    public void init() { }
 
-                        putIfAbsent(key, value);
-                    }
+    /**
+     * {@inheritDoc}
+     *
+     * {@code key} is canonicalized with
+     * {@link URLCanonicalizer#canonicalize(String)} and any spilled value
+     * is restored.
+     */
+    @Override
+    public AnyLicenseInfo get(Object key) {
+        AnyLicenseInfo value = null;
+
+        if (key instanceof String) {
+            String canonical = URLCanonicalizer.canonicalize((String) key);
+
+            value = super.get(canonical);
+
+            if (value != null) {
+                budget.touch(canonical.toLowerCase(Locale.ROOT));
+            } else {
+                value = restore(canonical);
+
+                if (value == null) {
+                    value = seed(canonical);
                 }
             }
+        } else {
+            value = super.get(key);
+        }
 
-            Properties seeds = getXMLProperties("seeds");
+        return value;
+    }
 
-            for (String id : seeds.stringPropertyNames()) {
-                AnyLicenseInfo value = LicenseInfoFactory.parseSPDXLicenseString(id);
+    @Override
+    public boolean containsKey(Object key) {
+        boolean found = false;
+
+        if (key instanceof String) {
+            String canonical = URLCanonicalizer.canonicalize((String) key);
+
+            found =
+                super.containsKey(canonical)
+                || spilled.containsKey(canonical)
+                || seeds.get(canonical) != null;
+        } else {
+            found = super.containsKey(key);
+        }
+
+        return found;
+    }
+
+    @Override
+    public AnyLicenseInfo put(String key, AnyLicenseInfo value) {
+        String canonical = URLCanonicalizer.canonicalize(key);
+        AnyLicenseInfo previous = super.put(canonical, value);
+
+        unspill(canonical);
+        admit(canonical, value);
+
+        return previous;
+    }
+
+    @Override
+    public AnyLicenseInfo putIfAbsent(String key, AnyLicenseInfo value) {
+        String canonical = URLCanonicalizer.canonicalize(key);
+        AnyLicenseInfo previous = get(canonical);
+
+        if (previous == null) {
+            previous = super.putIfAbsent(canonical, value);
+
+            if (previous == null) {
+                admit(canonical, value);
+            }
+        }
+
+        return previous;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * {@code key} is canonicalized with
+     * {@link URLCanonicalizer#canonicalize(String)} but {@code function}
+     * is applied to the original {@code key}.
+     */
+    @Override
+    public AnyLicenseInfo computeIfAbsent(String key, Function<? super String,? extends AnyLicenseInfo> function) {
+        String canonical = URLCanonicalizer.canonicalize(key);
+        AnyLicenseInfo value = get(canonical);
+
+        if (value == null) {
+            value = super.computeIfAbsent(canonical, k -> function.apply(key));
+
+            if (value != null) {
+                admit(canonical, value);
+            }
+        }
+
+        return value;
+    }
+
+    @Override
+    public AnyLicenseInfo remove(Object key) {
+        AnyLicenseInfo value = null;
+
+        if (key instanceof String) {
+            String canonical = URLCanonicalizer.canonicalize((String) key);
 
-                if (! isFullySpdxListed(value)) {
-                    throw new IllegalArgumentException(id);
+            value = super.remove(canonical);
+            budget.remove(canonical.toLowerCase(Locale.ROOT));
+            unspill(canonical);
+        } else {
+            value = super.remove(key);
+        }
+
+        return value;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        log.debug("{}.size() = {}; spilled = {}; {}",
+                  getClass().getSimpleName(), size(), spilled.size(), budget);
+
+        for (String key : spilled.keySet()) {
+            unspill(key);
+        }
+
+        synchronized (this) {
+            if (directory != null) {
+                directory.delete();
+                directory = null;
+            }
+        }
+    }
+
+    /*
+     * Fully SPDX-listed values are shared with the LicenseMap and are not
+     * weighed.  Otherwise, the weight is an estimate of the retained text
+     * (two bytes per character plus a fixed overhead per leaf).
+     */
+    private long weigh(AnyLicenseInfo value) {
+        long weight = 0;
+
+        if (value instanceof LicenseSet) {
+            for (AnyLicenseInfo member : ((LicenseSet) value).getMembers()) {
+                weight += weigh(member);
+            }
+        } else if (value instanceof ExtractedLicenseInfo) {
+            ExtractedLicenseInfo extracted = (ExtractedLicenseInfo) value;
+
+            weight += 64 + 2L * Objects.toString(extracted.getExtractedText(), EMPTY).length();
+
+            if (extracted.getSeeAlso() != null) {
+                for (String string : extracted.getSeeAlso()) {
+                    weight += 2L * Objects.toString(string, EMPTY).length();
                 }
+            }
+        }
 
-                Stream.of(seeds.getProperty(id).split("[\\p{Space}]+"))
-                    .filter(StringUtils::isNotBlank)
-                    .forEach(t -> putIfAbsent(t.trim(), value));
+        return weight;
+    }
+
+    private void admit(String key, AnyLicenseInfo value) {
+        long weight = weigh(value);
+
+        if (weight > 0) {
+            for (String victim : budget.admit(key.toLowerCase(Locale.ROOT), weight)) {
+                spill(victim);
             }
+        }
+    }
 
-            for (AnyLicenseInfo value : map.values()) {
-                if (value instanceof License) {
-                    for (String key : ((License) value).getSeeAlso()) {
-                        if (isNotBlank(key)) {
-                            putIfAbsent(key.trim(), value);
-                        }
+    private void spill(String key) {
+        AnyLicenseInfo value = super.get(key);
+        JsonNode node = (value != null) ? LicenseInfoJson.toJson(value) : null;
+
+        if (node != null) {
+            try {
+                synchronized (this) {
+                    if (directory == null) {
+                        directory = Files.createTempDirectory("license-url-").toFile();
                     }
                 }
+                /*
+                 * Spill files are deleted when restored or replaced and by
+                 * destroy() (not with File.deleteOnExit() which retains
+                 * every path for the life of the JVM).
+                 */
+                File file = File.createTempFile("url-", ".json", directory);
+
+                try {
+                    mapper.writeValue(file, node);
+                } catch (IOException exception) {
+                    file.delete();
+                    throw exception;
+                }
+
+                File previous = spilled.put(key, file);
+
+                if (previous != null) {
+                    previous.delete();
+                }
+            } catch (IOException exception) {
+                log.debug("{}: {}", key, exception.getMessage(), exception);
             }
+        }
 
-            Set<String> set =
-                keySet().stream()
-                .filter(t -> t.startsWith("https:"))
-                .collect(toSet());
+        if (value != null) {
+            super.remove(key, value);
+        }
+    }
 
-            set.stream()
-                .forEach(t -> computeIfAbsent(t.replace("https:", "http:"), k -> get(t)));
+    private AnyLicenseInfo restore(String key) {
+        AnyLicenseInfo value = null;
+        File file = spilled.remove(key);
 
-            redirects =
-                getXMLProperties("redirects").entrySet().stream()
-                .collect(toMap(k -> Pattern.compile(k.getKey().toString()),
-                               v -> v.getValue().toString().trim()));
-        } catch (Exception exception) {
-            log.error("{}", exception.getMessage(), exception);
-            throw new ExceptionInInitializerError(exception);
+        if (file != null) {
+            try {
+                value = LicenseInfoJson.fromJson(mapper.readTree(file), LicenseExpressionCache::parseOrNull);
+            } catch (IOException exception) {
+                log.debug("{}: {}", key, exception.getMessage(), exception);
+            } finally {
+                file.delete();
+            }
+
+            if (value != null) {
+                AnyLicenseInfo previous = super.putIfAbsent(key, value);
+
+                if (previous != null) {
+                    value = previous;
+                } else {
+                    admit(key, value);
+                }
+            }
         }
+
+        return value;
     }
 
-    @PostConstruct
-    public void init() { }
+    /*
+     * Seeded values are materialized on first use (one instance per SPDX
+     * expression).
+     */
+    private AnyLicenseInfo seed(String key) {
+        AnyLicenseInfo value = null;
+        String expression = seeds.get(key);
 
-    @PreDestroy
-    public void destroy() {
-        log.debug("{}.size() = {}", getClass().getSimpleName(), size());
+        if (expression != null) {
+            value = expressions.get(expression);
+
+            if (value == null) {
+                value = expression.matches("[^\\p{Space}()]+") ? map.get(expression) : null;
+
+                if (value == null) {
+                    value = LicenseExpressionCache.parseOrNull(expression);
+                }
+
+                if (value != null) {
+                    AnyLicenseInfo previous = expressions.putIfAbsent(expression, value);
+
+                    if (previous != null) {
+                        value = previous;
+                    }
+                }
+            }
+
+            if (value != null) {
+                AnyLicenseInfo previous = super.putIfAbsent(key, value);
+
+                if (previous != null) {
+                    value = previous;
+                }
+            }
+        }
+
+        return value;
+    }
+
+    private void unspill(String key) {
+        File file = spilled.remove(key);
+
+        if (file != null) {
+            file.delete();
+        }
     }
 
     /**
@@ -195,7 +475,7 @@ public class URLLicenseInfoParser extends ConcurrentSkipListMap<String,AnyLicens
         if (value == null) {
             Set<AnyLicenseInfo> set =
                 Stream.of(key.getSeeAlso())
-                .map(t -> computeIfAbsent(t, k -> compute(resolver, k)))
+                .map(t -> computeIfAbsent(t, k -> compute(resolver, k, Collections.emptyList())))
                 .collect(toSet());
 
             if (! set.isEmpty()) {
@@ -206,24 +486,162 @@ public class URLLicenseInfoParser extends ConcurrentSkipListMap<String,AnyLicens
         return (value != null) ? value : key;
     }
 
-    private AnyLicenseInfo compute(LicenseResolver resolver, String url) {
+    /*
+     * visited is the chain of URLs (redirects and alternates) that led to
+     * url; each nested fetch extends a copy so the recursion is bounded
+     * by MAXIMUM_HOPS and stops when a URL repeats.
+     */
+    private AnyLicenseInfo compute(LicenseResolver resolver, String url, List<String> visited) {
+        AnyLicenseInfo value = patterns.getSeed(url);
+
+        if (value == null) {
+            if (fetcher.getMode() == URLFetcher.Mode.LIVE && failures.isFailed(url)) {
+                log.debug("Skipping (previously failed): {}", url);
+                value = new TextLicenseInfo(url, EMPTY, url);
+            } else {
+                value = fetch(resolver, url, visited);
+            }
+        }
+
+        return value;
+    }
+
+    private AnyLicenseInfo fetch(LicenseResolver resolver, String url, List<String> visited) {
         AnyLicenseInfo value = null;
-        URLConnection connection = null;
 
         try {
-            connection = new URL(url).openConnection();
+            if (visited.stream().anyMatch(t -> isSameURL(t, url))) {
+                throw new IOException("Redirect loop: " + url);
+            }
+
+            if (visited.size() > MAXIMUM_HOPS) {
+                throw new IOException("Too many redirects: " + url);
+            }
+
+            List<String> chain = new ArrayList<>(visited);
+
+            value = probe(url, chain);
+
+            if (value == null) {
+                value = download(resolver, chain);
+            }
+
+            if (value != null) {
+                for (String link : chain.subList(visited.size(), chain.size())) {
+                    if (! isSameURL(link, url)) {
+                        putIfAbsent(link, value);
+                    }
+                }
+            }
+
+            failures.succeeded(url);
+        } catch (URLFetcher.UnrecordedURLException exception) {
+            throw exception;
+        } catch (FileNotFoundException exception) {
+            log.debug("File not found: {}", url);
+            failures.failed(url, exception);
+        } catch (Exception exception) {
+            log.warn("Cannot read {}", url);
+            failures.failed(url, exception);
+        } finally {
+            if (value == null) {
+                value = new TextLicenseInfo(url, EMPTY, url);
+            }
+        }
+
+        if (value instanceof ExtractedLicenseInfo) {
+            TextLicenseInfo.addSeeAlso((ExtractedLicenseInfo) value, url);
+        }
+
+        return value;
+    }
+
+    /*
+     * HEAD the URL and follow the redirect (Location header or configured
+     * rule) and canonical Link header chain while it leads to URLs that
+     * are not already known.  Returns the known value (if any); the chain
+     * collects the URLs visited (the last is the URL to download) and
+     * bounds the hops.
+     */
+    private AnyLicenseInfo probe(String url, List<String> chain) throws IOException {
+        AnyLicenseInfo value = null;
+        String target = url;
+
+        chain.add(url);
+
+        while (value == null && target != null && chain.size() <= MAXIMUM_HOPS) {
+            URLConnection connection = fetcher.open(target, "HEAD");
+            String next = null;
 
             if (connection instanceof HttpURLConnection) {
-                ((HttpURLConnection) connection).setInstanceFollowRedirects(false);
+                try {
+                    int code =
+                        fetcher.limit(connection.getURL().toString(), URLFetcher.Operation.HEAD,
+                                      t -> t.status(((HttpURLConnection) connection).getResponseCode()));
+
+                    /*
+                     * Some servers answer HEAD (but not GET) with 404 or
+                     * 410: Probing stops and the failure is only recorded
+                     * if the GET in download() confirms it.
+                     */
+                    boolean missing =
+                        (code == HttpURLConnection.HTTP_NOT_FOUND || code == HttpURLConnection.HTTP_GONE);
+                    String canonicalURL = missing ? null : getCanonicalURL(connection);
+
+                    if (isNotBlank(canonicalURL) && (! isSameURL(canonicalURL, target))) {
+                        value = getKnown(canonicalURL);
+                    }
+
+                    if (value == null && (! missing)) {
+                        String redirectURL = getRedirectURL(connection);
+
+                        if (isNotBlank(redirectURL)
+                            && chain.stream().noneMatch(t -> isSameURL(t, redirectURL))) {
+                            value = getKnown(redirectURL);
+                            chain.add(redirectURL);
+                            next = redirectURL;
+                        }
+                    }
+                } finally {
+                    ((HttpURLConnection) connection).disconnect();
+                }
             }
 
-            if (connection instanceof HttpsURLConnection) {
-                ((HttpsURLConnection) connection).setHostnameVerifier(NONE);
+            target = next;
+        }
+
+        return value;
+    }
+
+    private AnyLicenseInfo getKnown(String url) {
+        AnyLicenseInfo value = get(url);
+
+        if (value == null) {
+            value = patterns.getSeed(url);
+        }
+
+        return value;
+    }
+
+    private AnyLicenseInfo download(LicenseResolver resolver, List<String> chain) throws IOException {
+        AnyLicenseInfo value = null;
+        String url = chain.get(chain.size() - 1);
+        URLConnection connection = fetcher.open(url);
+
+        try {
+            if (connection instanceof HttpURLConnection) {
+                int code =
+                    fetcher.limit(url, URLFetcher.Operation.GET,
+                                  t -> t.status(((HttpURLConnection) connection).getResponseCode()));
+
+                if (code == HttpURLConnection.HTTP_NOT_FOUND || code == HttpURLConnection.HTTP_GONE) {
+                    throw new FileNotFoundException(url);
+                }
             }
 
             String canonicalURL = getCanonicalURL(connection);
 
-            if (isNotBlank(canonicalURL) && (! equals(canonicalURL, url))) {
+            if (isNotBlank(canonicalURL) && (! isSameURL(canonicalURL, url))) {
                 if (value == null) {
                     value = get(canonicalURL);
                 }
@@ -232,34 +650,44 @@ public class URLLicenseInfoParser extends ConcurrentSkipListMap<String,AnyLicens
             String redirectURL = getRedirectURL(connection);
 
             if (isNotBlank(redirectURL)) {
-                if (! equals(redirectURL, url)) {
-                    if (value != null) {
-                        put(redirectURL, value);
-                    } else {
-                        value = computeIfAbsent(redirectURL, k -> compute(resolver, k));
-                    }
+                if (chain.stream().anyMatch(t -> isSameURL(t, redirectURL))) {
+                    throw new IOException("Redirect loop: " + url);
+                }
+                /*
+                 * A redirect to a URL with the same canonical key (e.g.,
+                 * http to https) is fetched directly; the result is
+                 * cached under the (shared) key by the caller.
+                 */
+                if (value != null) {
+                    put(redirectURL, value);
+                } else if (comparator().compare(URLCanonicalizer.canonicalize(redirectURL),
+                                                URLCanonicalizer.canonicalize(url)) == 0) {
+                    value = compute(resolver, redirectURL, chain);
+                } else {
+                    value = computeIfAbsent(redirectURL, k -> compute(resolver, k, chain));
                 }
             }
 
+            if (value == null) {
+                value = getAlternate(resolver, chain, fetcher.getAlternateURL(connection));
+            }
+
             if (value == null) {
                 ContentType type = ContentType.parse(connection.getContentType());
                 Charset charset = (type.getCharset() != null) ? type.getCharset() : UTF_8;
 
                 if (type.getMimeType().matches("(?i).*(html|xml).*")) {
-                    try (InputStream in = connection.getInputStream()) {
-                        Document document = Jsoup.parse(in, charset.name(), url);
-
-                        document.outputSettings()
-                            .syntax(Document.OutputSettings.Syntax.xml);
+                    try (InputStream in = fetcher.getInputStream(connection);
+                         Reader reader = new InputStreamReader(in, charset)) {
+                        HTMLTextExtractor.Extract extract =
+                            fetcher.limit(url, URLFetcher.Operation.BODY, t -> extractor.extract(reader, url));
                         /*
                          * Heuristic: Look for a "canonical" <link/> with a
                          * known href.
                          */
                         if (value == null) {
                             value =
-                                document.select("head>link[rel='canonical'][href]").stream()
-                                .map(t -> t.attr("abs:href"))
-                                .filter(StringUtils::isNotBlank)
+                                extract.getCanonical().stream()
                                 .map(t -> get(t))
                                 .filter(Objects::nonNull)
                                 .findFirst().orElse(null);
@@ -278,12 +706,7 @@ public class URLLicenseInfoParser extends ConcurrentSkipListMap<String,AnyLicens
                          */
                         if (value == null) {
                             value =
-                                Stream.of("content, .content, #content", "main, .main, #main", "body, .body, #body")
-                                .map(t -> document.select(t))
-                                .flatMap(Elements::stream)
-                                .filter(Element::hasText)
-                                .map(t -> t.text())
-                                .distinct()
+                                extract.getRegions().stream()
                                 .map(t -> new TextLicenseInfo(url, t, url))
                                 .map(t -> resolver.parse(t))
                                 .filter(Objects::nonNull)
@@ -293,44 +716,73 @@ public class URLLicenseInfoParser extends ConcurrentSkipListMap<String,AnyLicens
                         }
 
                         if (value == null) {
-                            value = new TextLicenseInfo(url, document.wholeText(), url);
+                            value =
+                                extract.getAlternates().entrySet().stream()
+                                .filter(t -> t.getValue().matches("(?i)text/plain.*"))
+                                .map(t -> getAlternate(resolver, chain, t.getKey()))
+                                .filter(Objects::nonNull)
+                                .findFirst()
+                                .orElse(null);
+                        }
+
+                        if (value == null) {
+                            value = new TextLicenseInfo(url, extract.getText(), url);
                             value = resolver.parse(value);
                         }
                     }
                 } else {
-                    try (InputStream in = connection.getInputStream();
-                         Scanner scanner = new Scanner(in, charset.name())) {
-                        String text = scanner.useDelimiter("\\A").next();
+                    String text = fetcher.limit(url, URLFetcher.Operation.BODY, t -> fetcher.getText(connection, charset));
 
+                    if (text != null) {
                         value = new TextLicenseInfo(url, text, url);
                         value = resolver.parse(value);
                     }
                 }
             }
-        } catch (FileNotFoundException exception) {
-            log.debug("File not found: {}", url);
-        } catch (Exception exception) {
-            log.warn("Cannot read {}", url);
+        } catch (IOException | RuntimeException exception) {
+            connection.getHeaderFields().entrySet().stream()
+                .forEach(t -> log.debug("{}", t));
 
-            if (connection != null) {
-                connection.getHeaderFields().entrySet().stream()
-                    .forEach(t -> log.debug("{}", t));
-            }
-        } finally {
-            if (value == null) {
-                value = new TextLicenseInfo(url, EMPTY, url);
-            }
+            throw exception;
         }
 
-        if (value instanceof ExtractedLicenseInfo) {
-            TextLicenseInfo.addSeeAlso((ExtractedLicenseInfo) value, url);
+        return value;
+    }
+
+    /*
+     * A text/plain alternate is only used if it parses to something other
+     * than an ExtractedLicenseInfo.
+     */
+    private AnyLicenseInfo getAlternate(LicenseResolver resolver, List<String> chain, String alternate) {
+        AnyLicenseInfo value = null;
+
+        if (isNotBlank(alternate) && chain.stream().noneMatch(t -> isSameURL(t, alternate))) {
+            value = computeIfAbsent(alternate, k -> compute(resolver, k, chain));
+
+            if (value instanceof ExtractedLicenseInfo) {
+                value = null;
+            }
         }
 
         return value;
     }
 
-    private boolean equals(String left, String right) {
-        return (Objects.compare(left, right, comparator()) == 0 && Objects.compare(right, left, comparator()) == 0);
+    /*
+     * Redirect and loop detection compare the URLs actually requested
+     * (canonical keys fold http/https, www., etc. and are only for cache
+     * lookup).
+     */
+    private boolean isSameURL(String left, String right) {
+        boolean same = Objects.equals(left, right);
+
+        if (! same) {
+            try {
+                same = new URI(left).normalize().equals(new URI(right).normalize());
+            } catch (URISyntaxException exception) {
+            }
+        }
+
+        return same;
     }
 
     private String getCanonicalURL(URLConnection connection) {
@@ -371,19 +823,7 @@ public class URLLicenseInfoParser extends ConcurrentSkipListMap<String,AnyLicens
             }
 
             if (isBlank(redirectURL)) {
-                for (Map.Entry<Pattern,String> entry : redirects.entrySet()) {
-                    Matcher matcher = entry.getKey().matcher(url);
-
-                    if (matcher.matches()) {
-                        redirectURL = matcher.replaceFirst(entry.getValue());
-
-                        if (isNotBlank(redirectURL)) {
-                            break;
-                        } else {
-                            redirectURL = null;
-                        }
-                    }
-                }
+                redirectURL = patterns.getRedirect(url);
             }
         }
 
@@ -403,12 +843,4 @@ public class URLLicenseInfoParser extends ConcurrentSkipListMap<String,AnyLicens
 
         return uri;
     }
-
-    @NoArgsConstructor @ToString
-    private static class HostnameVerifierImpl implements HostnameVerifier {
-        @Override
-        public boolean verify(String hostname, SSLSession session) {
-            return true;
-        }
-    }
 }
@@ -0,0 +1,240 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.spdx.rdfparser.license.AnyLicenseInfo;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Host and path-prefix trie of redirect rules (regular expression to
+ * replacement) and seed URL prefixes (e.g.,
+ * {@code https://github.com/owner/repository/blob/*}).  A look-up walks
+ * the trie once for the {@link java.net.URL}'s host and path segments and
+ * only the rules attached to the visited nodes (most specific first) are
+ * evaluated.  Redirect rules whose host cannot be determined from the
+ * regular expression are evaluated for every {@link java.net.URL}.  Seed
+ * prefixes ignore the {@code http}/{@code https} scheme and case.
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@NoArgsConstructor @ToString
+public class URLPatternIndex {
+    private static final Pattern REGEX =
+        Pattern.compile("(?<scheme>[\\^]?(\\(\\?i\\))?[\\^]?https?[?]?://)(?<host>[\\p{Alnum}.-]+)(?<path>/.*)?");
+    private static final String META = "\\[](){}*+?|^$.";
+
+    private final Node root = new Node();
+    private final List<Rule> anywhere = new ArrayList<>();
+
+    /**
+     * Method to add a redirect rule.
+     *
+     * @param   pattern         The {@link Pattern} the {@link java.net.URL}
+     *                          must match.
+     * @param   replacement     The replacement (see
+     *                          {@link Matcher#replaceFirst(String)}).
+     */
+    public synchronized void putRedirect(Pattern pattern, String replacement) {
+        Rule rule = new Rule(pattern, replacement, null, null);
+        Matcher matcher = REGEX.matcher(pattern.pattern().replace("[.]", ".").replace("\\.", "."));
+
+        if (matcher.matches()) {
+            String path = literal(matcher.group("path"));
+
+            node(matcher.group("host"), path.substring(0, path.lastIndexOf("/") + 1)).rules.add(rule);
+        } else {
+            anywhere.add(rule);
+        }
+    }
+
+    /**
+     * Method to add a seed.  If {@code url} ends with {@code *}, the seed
+     * applies to every {@link java.net.URL} with the preceding prefix.
+     *
+     * @param   url             The seed {@link java.net.URL} (prefix).
+     * @param   value           The {@link AnyLicenseInfo}.
+     */
+    public synchronized void putSeed(String url, AnyLicenseInfo value) {
+        String prefix = fold(url.trim().replaceAll("[*]+$", ""));
+        int slash = prefix.indexOf("/");
+        String host = (slash < 0) ? prefix : prefix.substring(0, slash);
+        String path = (slash < 0) ? "/" : prefix.substring(slash);
+
+        node(host, path.substring(0, path.lastIndexOf("/") + 1)).rules.add(new Rule(null, null, prefix, value));
+    }
+
+    /**
+     * Method to get the redirect {@link java.net.URL} (if any) for a
+     * {@link java.net.URL}.
+     *
+     * @param   url             The {@link java.net.URL} ({@link String}
+     *                          representation).
+     *
+     * @return  The redirect {@link java.net.URL} or {@code null} if no
+     *          rule matches.
+     */
+    public String getRedirect(String url) {
+        String redirect = null;
+
+        for (Rule rule : candidates(url)) {
+            if (rule.pattern != null) {
+                Matcher matcher = rule.pattern.matcher(url);
+
+                if (matcher.matches()) {
+                    redirect = matcher.replaceFirst(rule.replacement);
+
+                    if (isNotBlank(redirect)) {
+                        break;
+                    } else {
+                        redirect = null;
+                    }
+                }
+            }
+        }
+
+        return redirect;
+    }
+
+    /**
+     * Method to get the seeded {@link AnyLicenseInfo} (if any) for a
+     * {@link java.net.URL}.
+     *
+     * @param   url             The {@link java.net.URL} ({@link String}
+     *                          representation).
+     *
+     * @return  The {@link AnyLicenseInfo} or {@code null} if no seed
+     *          prefix matches.
+     */
+    public AnyLicenseInfo getSeed(String url) {
+        AnyLicenseInfo value = null;
+        String folded = fold(url);
+
+        for (Rule rule : candidates(url)) {
+            if (rule.prefix != null && folded.startsWith(rule.prefix)) {
+                value = rule.value;
+                break;
+            }
+        }
+
+        return value;
+    }
+
+    private synchronized List<Rule> candidates(String url) {
+        List<Rule> list = new ArrayList<>();
+        String folded = fold(url);
+        int slash = folded.indexOf("/");
+        String host = (slash < 0) ? folded : folded.substring(0, slash);
+        String path = (slash < 0) ? "/" : folded.substring(slash);
+        Node node = root.children.get(host);
+
+        if (node != null) {
+            List<Node> visited = new ArrayList<>();
+
+            visited.add(node);
+
+            String[] segments = path.split("/", -1);
+
+            for (int i = 1; i < segments.length - 1 && node != null; i += 1) {
+                node = node.children.get(segments[i]);
+
+                if (node != null) {
+                    visited.add(node);
+                }
+            }
+
+            for (int i = visited.size() - 1; i >= 0; i -= 1) {
+                list.addAll(visited.get(i).rules);
+            }
+        }
+
+        list.addAll(anywhere);
+
+        return list;
+    }
+
+    private Node node(String host, String path) {
+        Node node = root.children.computeIfAbsent(host.toLowerCase(Locale.ROOT), k -> new Node());
+        String[] segments = path.toLowerCase(Locale.ROOT).split("/", -1);
+
+        for (int i = 1; i < segments.length - 1; i += 1) {
+            node = node.children.computeIfAbsent(segments[i], k -> new Node());
+        }
+
+        return node;
+    }
+
+    private static String literal(String path) {
+        StringBuilder buffer = new StringBuilder();
+
+        if (path != null) {
+            for (char character : path.toCharArray()) {
+                if (META.indexOf(character) >= 0) {
+                    break;
+                }
+
+                buffer.append(character);
+            }
+        }
+
+        return (buffer.length() > 0) ? buffer.toString() : "/";
+    }
+
+    /*
+     * Drops the scheme, the query, and the fragment.
+     */
+    private static String fold(String url) {
+        String string = url.trim().replaceFirst("(?i)^[a-z][a-z0-9+.-]*://", "");
+        int end = string.length();
+
+        for (char character : new char[] { '?', '#' }) {
+            int index = string.indexOf(character);
+
+            if (index >= 0) {
+                end = Math.min(end, index);
+            }
+        }
+
+        return string.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    @NoArgsConstructor @ToString
+    private static class Node {
+        private final Map<String,Node> children = new TreeMap<>();
+        private final List<Rule> rules = new ArrayList<>();
+    }
+
+    @AllArgsConstructor @ToString
+    private static class Rule {
+        private final Pattern pattern;
+        private final String replacement;
+        private final String prefix;
+        private final AnyLicenseInfo value;
+    }
+}
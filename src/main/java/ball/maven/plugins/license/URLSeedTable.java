@@ -0,0 +1,321 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.spdx.rdfparser.license.AnyLicenseInfo;
+import org.spdx.rdfparser.license.License;
+
+import static ball.maven.plugins.license.LicenseUtilityMethods.isFullySpdxListed;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Immutable, sorted table of canonical ({@link URLCanonicalizer}) license
+ * document URL to SPDX license expression.  The table is generated at
+ * plugin build time with {@link #main(String[])} from the
+ * {@link LicenseMap}, {@link LicenseListIndex} URIs, and
+ * {@link URLLicenseInfoParser} seeds and is read in a single pass from the
+ * {@link #RESOURCE} class resource.  Lookups are binary searches
+ * (case-insensitive).
+ *
+ * @author {@link.uri mailto:ball@hcf.dev Allen D. Ball}
+ */
+@Slf4j
+public class URLSeedTable {
+
+    /**
+     * Generated class resource name.
+     */
+    public static final String RESOURCE = URLSeedTable.class.getSimpleName() + ".bin";
+
+    private static final String SEEDS =
+        URLLicenseInfoParser.class.getSimpleName() + ".seeds.xml";
+    private static final int MAGIC = 0x55535454;        /* "USTT" */
+    private static final int VERSION = 1;
+
+    private final String[] expressions;
+    private final String[] keys;
+    private final int[] values;
+
+    private URLSeedTable(String[] expressions, String[] keys, int[] values) {
+        this.expressions = expressions;
+        this.keys = keys;
+        this.values = values;
+    }
+
+    private URLSeedTable(TreeMap<String,String> map) {
+        List<String> expressions = new ArrayList<>();
+
+        this.keys = map.keySet().toArray(new String[] { });
+        this.values = new int[keys.length];
+
+        for (int i = 0; i < keys.length; i += 1) {
+            String expression = map.get(keys[i]);
+            int index = expressions.indexOf(expression);
+
+            if (index < 0) {
+                index = expressions.size();
+                expressions.add(expression);
+            }
+
+            values[i] = index;
+        }
+
+        this.expressions = expressions.toArray(new String[] { });
+    }
+
+    /**
+     * Method to get the number of entries.
+     *
+     * @return  The number of entries.
+     */
+    public int size() { return keys.length; }
+
+    /**
+     * Method to look up the SPDX license expression for a canonical URL.
+     *
+     * @param   key             The canonical URL ({@link String}
+     *                          representation).
+     *
+     * @return  The SPDX license expression or {@code null} if none.
+     */
+    public String get(String key) {
+        int index = Arrays.binarySearch(keys, key, String.CASE_INSENSITIVE_ORDER);
+
+        return (index >= 0) ? expressions[values[index]] : null;
+    }
+
+    /**
+     * Static method to read a table.
+     *
+     * @param   in              The {@link InputStream} (not closed by
+     *                          this method).
+     *
+     * @return  The {@link URLSeedTable}.
+     *
+     * @throws  IOException     If the table cannot be read.
+     */
+    public static URLSeedTable read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new GZIPInputStream(new BufferedInputStream(in)));
+
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Unrecognized table format");
+        }
+
+        String[] expressions = new String[data.readInt()];
+
+        for (int i = 0; i < expressions.length; i += 1) {
+            expressions[i] = data.readUTF();
+        }
+
+        String[] keys = new String[data.readInt()];
+        int[] values = new int[keys.length];
+
+        for (int i = 0; i < keys.length; i += 1) {
+            keys[i] = data.readUTF();
+            values[i] = data.readInt();
+        }
+
+        return new URLSeedTable(expressions, keys, values);
+    }
+
+    /**
+     * Method to write this table.
+     *
+     * @param   out             The {@link OutputStream} (not closed by
+     *                          this method).
+     *
+     * @throws  IOException     If the table cannot be written.
+     */
+    public void write(OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(out));
+        DataOutputStream data = new DataOutputStream(gzip);
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(expressions.length);
+
+        for (String expression : expressions) {
+            data.writeUTF(expression);
+        }
+
+        data.writeInt(keys.length);
+
+        for (int i = 0; i < keys.length; i += 1) {
+            data.writeUTF(keys[i]);
+            data.writeInt(values[i]);
+        }
+
+        data.flush();
+        gzip.finish();
+        gzip.flush();
+    }
+
+    /**
+     * Static method to generate the table.  The order of precedence is:
+     * opensource.org and spdx.org license pages, {@link LicenseListIndex}
+     * URIs, seeds (other than wildcard prefixes), and finally each
+     * {@link License#getSeeAlso()}.
+     *
+     * @param   map             The {@link LicenseMap}.
+     * @param   seeds           The seed {@link Properties} (SPDX
+     *                          expression to whitespace-separated URLs).
+     *
+     * @return  The {@link URLSeedTable}.
+     *
+     * @throws  Exception       If a seed expression is not fully SPDX
+     *                          listed.
+     */
+    public static URLSeedTable generate(LicenseMap map, Properties seeds) throws Exception {
+        TreeMap<String,String> table = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        for (String expression : map.getExpressions()) {
+            AnyLicenseInfo value = map.get(expression);
+
+            if (value instanceof License) {
+                String id = ((License) value).getLicenseId();
+
+                put(table, String.format("https://opensource.org/licenses/%s", id), id);
+                put(table, String.format("https://spdx.org/licenses/%s.html", id), id);
+            }
+        }
+
+        for (LicenseListIndex.Entry entry : LicenseListIndex.getDefault().getEntries()) {
+            AnyLicenseInfo value = map.get(entry.getId());
+
+            if (value instanceof License) {
+                for (String key : entry.getUris()) {
+                    putIfAbsent(table, key, ((License) value).getLicenseId());
+                }
+            }
+        }
+
+        for (String id : seeds.stringPropertyNames()) {
+            AnyLicenseInfo value = LicenseExpressionCache.parse(id);
+
+            if (! isFullySpdxListed(value)) {
+                throw new IllegalArgumentException(id);
+            }
+
+            for (String url : seeds.getProperty(id).split("[\\p{Space}]+")) {
+                if (isNotBlank(url) && (! url.endsWith("*"))) {
+                    putIfAbsent(table, url.trim(), id);
+                }
+            }
+        }
+
+        for (String expression : map.getExpressions()) {
+            AnyLicenseInfo value = map.get(expression);
+
+            if (value instanceof License) {
+                for (String key : ((License) value).getSeeAlso()) {
+                    if (isNotBlank(key)) {
+                        putIfAbsent(table, key.trim(), ((License) value).getLicenseId());
+                    }
+                }
+            }
+        }
+
+        return new URLSeedTable(table);
+    }
+
+    private static void put(Map<String,String> table, String key, String value) {
+        table.put(URLCanonicalizer.canonicalize(key), value);
+    }
+
+    private static void putIfAbsent(Map<String,String> table, String key, String value) {
+        table.putIfAbsent(URLCanonicalizer.canonicalize(key), value);
+    }
+
+    /**
+     * Static method to load the table from the {@link #RESOURCE} or
+     * generate it if the resource is not present.
+     *
+     * @param   map             The {@link LicenseMap}.
+     * @param   seeds           The seed {@link Properties}.
+     *
+     * @return  The {@link URLSeedTable}.
+     *
+     * @throws  Exception       If the table cannot be read or generated.
+     */
+    public static URLSeedTable load(LicenseMap map, Properties seeds) throws Exception {
+        URLSeedTable table = null;
+
+        try (InputStream in = URLSeedTable.class.getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                table = read(in);
+            } else {
+                log.debug("{} not found; generating", RESOURCE);
+                table = generate(map, seeds);
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * Build-time entry point to generate the table resource.
+     *
+     * @param   argv            The output {@link File} name.
+     *
+     * @throws  Exception       If the table cannot be generated.
+     */
+    public static void main(String[] argv) throws Exception {
+        LicenseMap map = new LicenseMap();
+        Properties seeds = new Properties();
+
+        map.init();
+
+        try (InputStream in = URLLicenseInfoParser.class.getResourceAsStream(SEEDS)) {
+            seeds.loadFromXML(in);
+        }
+
+        URLSeedTable table = generate(map, seeds);
+        File file = new File(argv[0]);
+
+        file.getParentFile().mkdirs();
+
+        try (OutputStream out = new FileOutputStream(file)) {
+            table.write(out);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s(size=%d, expressions=%d)",
+                             getClass().getSimpleName(), keys.length, expressions.length);
+    }
+}
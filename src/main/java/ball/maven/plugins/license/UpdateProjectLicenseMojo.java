@@ -203,7 +203,7 @@ public class UpdateProjectLicenseMojo extends AbstractLicenseMojo {
              * ... and record the result.
              */
             if (license != null) {
-                catalog.put(project.getArtifact(), license);
+                catalog.put(ArtifactKey.of(project.getArtifact()), license);
                 catalog.flush();
             }
         } else {
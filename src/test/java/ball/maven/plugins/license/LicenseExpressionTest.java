@@ -0,0 +1,56 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import org.junit.jupiter.api.Test;
+import org.spdx.rdfparser.license.AnyLicenseInfo;
+import org.spdx.rdfparser.license.ConjunctiveLicenseSet;
+import org.spdx.rdfparser.license.DisjunctiveLicenseSet;
+
+import static ball.maven.plugins.license.LicenseUtilityMethods.isEmpty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LicenseExpressionTest {
+    @Test
+    public void listed() {
+        LicenseExpression expression = LicenseExpression.parse("mit OR Apache-2.0");
+
+        assertEquals("(Apache-2.0 OR MIT)", expression.toString());
+        assertEquals(2, expression.countOf());
+        assertTrue(expression.isFullySpdxListed());
+        assertSame(expression, LicenseExpression.parse("(MIT OR Apache-2.0)"));
+        assertFalse(LicenseExpression.parse("MIT AND LicenseRef-Acme").isFullySpdxListed());
+    }
+
+    @Test
+    public void empty() throws Exception {
+        LicenseExpression expression = LicenseExpression.parse("()");
+
+        assertEquals("()", expression.toString());
+        assertEquals(0, expression.countOf());
+        assertFalse(expression.isFullySpdxListed());
+        assertSame(expression, LicenseExpression.of(new DisjunctiveLicenseSet(new AnyLicenseInfo[] { })));
+        assertSame(expression, LicenseExpression.of(new ConjunctiveLicenseSet(new AnyLicenseInfo[] { })));
+        assertSame(expression, LicenseExpression.parse(expression.toString()));
+        assertTrue(isEmpty(expression.toLicenseInfo()));
+    }
+}
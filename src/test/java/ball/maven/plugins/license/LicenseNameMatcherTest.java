@@ -0,0 +1,77 @@
+package ball.maven.plugins.license;
+/*-
+ * ##########################################################################
+ * License Maven Plugin
+ * %%
+ * Copyright (C) 2020 - 2022 Allen D. Ball
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ##########################################################################
+ */
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LicenseNameMatcherTest {
+    private static final LicenseNameMatcher<String> MATCHER = new LicenseNameMatcher<>(names());
+
+    private static Map<String,String> names() {
+        Map<String,String> map = new LinkedHashMap<>();
+
+        map.put("Apache-2.0", "Apache-2.0");
+        map.put("Apache License 2.0", "Apache-2.0");
+        map.put("Apache-1.1", "Apache-1.1");
+        map.put("Apache License 1.1", "Apache-1.1");
+        map.put("MIT", "MIT");
+        map.put("MIT License", "MIT");
+        map.put("GPL-2.0-only", "GPL-2.0-only");
+        map.put("GNU General Public License v2.0 only", "GPL-2.0-only");
+        map.put("LGPL-2.1-or-later", "LGPL-2.1-or-later");
+        map.put("GNU Lesser General Public License v2.1 or later", "LGPL-2.1-or-later");
+        map.put("BSD-3-Clause", "BSD-3-Clause");
+        map.put("BSD 3-Clause \"New\" or \"Revised\" License", "BSD-3-Clause");
+
+        return map;
+    }
+
+    @Test
+    public void matches() {
+        assertEquals("Apache-2.0", MATCHER.match("The Apache Software License, Version 2.0"));
+        assertEquals("Apache-2.0", MATCHER.match("Apache 2"));
+        assertEquals("Apache-1.1", MATCHER.match("Apache License, Version 1.1"));
+        assertEquals("MIT", MATCHER.match("The MIT License"));
+        assertEquals("LGPL-2.1-or-later", MATCHER.match("GNU Lesser General Public License v2.1 or later"));
+    }
+
+    @Test
+    public void rejectsUnknownWords() {
+        assertNull(MATCHER.match("Apache License 2.0 modified by Acme Corp"));
+        assertNull(MATCHER.match("Not Apache License 2.0"));
+        assertNull(MATCHER.match("MIT License with Acme additions"));
+    }
+
+    @Test
+    public void rejectsVersionMismatch() {
+        assertNull(MATCHER.match("Apache License 3.0"));
+        assertNull(MATCHER.match("GNU Lesser General Public License v3 or later"));
+    }
+
+    @Test
+    public void rejectsAmbiguous() {
+        assertNull(MATCHER.match("Apache License"));
+        assertNull(MATCHER.match("GNU General Public License"));
+    }
+}